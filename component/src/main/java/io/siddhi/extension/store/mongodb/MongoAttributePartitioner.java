@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.store.mongodb;
+
+import io.siddhi.extension.store.mongodb.condition.FilterNode;
+import io.siddhi.extension.store.mongodb.condition.Operand;
+import io.siddhi.extension.store.mongodb.util.MongoTableUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Class which routes the events of the table to a collection per value of an attribute, such as 'Foo_tenant1' for
+ * the events of a tenant, so that each collection and its indices only hold the documents of a single value.
+ * Every condition on the table is required to bind the attribute to a single value, hence each read or write is
+ * routed to exactly one partition.
+ */
+public class MongoAttributePartitioner {
+    private String collectionName;
+    private String partitionField;
+    private int partitionFieldIndex;
+    private final Set<String> preparedPartitions = ConcurrentHashMap.newKeySet();
+
+    public MongoAttributePartitioner(String collectionName, List<String> attributeNames, String partitionField) {
+        this.collectionName = collectionName;
+        this.partitionField = partitionField;
+        this.partitionFieldIndex = attributeNames.indexOf(partitionField);
+    }
+
+    public String getPartitionField() {
+        return partitionField;
+    }
+
+    /**
+     * Method for finding the operand binding the partition field in a condition, which is an equality of the
+     * field with a stream variable or a constant, alone or joined with the other predicates by an AND operation.
+     *
+     * @param filter the filter built for the condition.
+     * @return the operand or null if the condition does not bind the partition field to a single value.
+     */
+    public Operand findBoundOperand(FilterNode filter) {
+        return MongoTableUtils.findBoundOperand(filter, this.partitionField);
+    }
+
+    /**
+     * Method for returning the partition of the documents matched by a condition.
+     *
+     * @param boundOperand the operand binding the partition field in the condition.
+     * @param parameters   the runtime values of the stream variables of the condition.
+     * @return the name of the collection of the partition, or null if the partition field is bound to null.
+     */
+    public String findPartition(Operand boundOperand, Map<String, Object> parameters) {
+        return this.getPartitionName(boundOperand.resolve(parameters));
+    }
+
+    /**
+     * Method for returning the partition of a record.
+     *
+     * @param record the record.
+     * @return the name of the collection of the partition, or null if the record has no value for the field.
+     */
+    public String findPartition(Object[] record) {
+        return this.getPartitionName(record[this.partitionFieldIndex]);
+    }
+
+    /**
+     * Method for returning the name of the collection of a partition. The characters which are not allowed in
+     * collection names are escaped along with the escape character, so that distinct values never share a
+     * collection.
+     *
+     * @param value the value of the partition field.
+     * @return the name of the collection, or null for a null value.
+     */
+    private String getPartitionName(Object value) {
+        if (value == null) {
+            return null;
+        }
+        StringBuilder partitionName = new StringBuilder(this.collectionName).append('_');
+        for (char character : String.valueOf(value).toCharArray()) {
+            if (character == '%' || character == '$' || character == '\0') {
+                partitionName.append(String.format("%%%02X", (int) character));
+            } else {
+                partitionName.append(character);
+            }
+        }
+        return partitionName.toString();
+    }
+
+    /**
+     * Method for registering a partition which is written to.
+     *
+     * @param partitionName the name of the collection of the partition.
+     * @return true if the partition was not written to before, hence its indices have to be created.
+     */
+    public boolean register(String partitionName) {
+        return this.preparedPartitions.add(partitionName);
+    }
+
+    /**
+     * Method for forgetting a partition whose preparation failed, so that it is prepared again by the next write.
+     *
+     * @param partitionName the name of the collection of the partition.
+     */
+    public void unregister(String partitionName) {
+        this.preparedPartitions.remove(partitionName);
+    }
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.store.mongodb;
+
+import com.mongodb.client.model.IndexModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import io.siddhi.extension.store.mongodb.condition.ExprFilterNode;
+import io.siddhi.extension.store.mongodb.condition.FieldFilterNode;
+import io.siddhi.extension.store.mongodb.condition.FilterNode;
+import io.siddhi.extension.store.mongodb.condition.LogicalFilterNode;
+import io.siddhi.extension.store.mongodb.util.MongoTableConstants;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Class which stores the events of the table in bucket documents, grouping the events with the same key values
+ * within a time window into a single document of the form
+ * '{&lt;key fields&gt;, bucketStart: &lt;start of the window&gt;, eventCount: &lt;events&gt;, events: [...]}'.
+ * Events are appended to the bucket with '$push' and '$inc' through an upsert, which starts a new bucket once the
+ * bucket is full. The conditions are resolved to a filter on the keys and the windows of the buckets, and the
+ * events of the matched buckets are filtered with the predicate of the condition when they are unwound.
+ */
+public class MongoBucketPattern {
+    private static final List<String> TIME_OPERATORS = Arrays.asList(FieldFilterNode.EQUAL, FieldFilterNode.IN,
+            FieldFilterNode.GREATER_THAN, FieldFilterNode.GREATER_THAN_EQUAL, FieldFilterNode.LESS_THAN,
+            FieldFilterNode.LESS_THAN_EQUAL);
+
+    private List<String> attributeNames;
+    private List<String> keyFields;
+    private String timeField;
+    private long interval;
+    private int maxEvents;
+    private Set<String> dateFields;
+
+    public MongoBucketPattern(List<String> attributeNames, List<String> keyFields, String timeField, long interval,
+                              int maxEvents, Set<String> dateFields) {
+        this.attributeNames = attributeNames;
+        this.keyFields = keyFields;
+        this.timeField = timeField;
+        this.interval = interval;
+        this.maxEvents = maxEvents;
+        this.dateFields = dateFields;
+    }
+
+    public List<String> getKeyFields() {
+        return keyFields;
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    /**
+     * Method for creating the index on the keys and the windows of the buckets, which serves the appends as well
+     * as the filters of the conditions.
+     *
+     * @return the index model.
+     */
+    public IndexModel createIndexModel() {
+        Document indexKeys = new Document();
+        this.keyFields.forEach(keyField -> indexKeys.append(keyField, 1));
+        indexKeys.append(MongoTableConstants.BUCKET_FIELD_START, 1);
+        return new IndexModel(indexKeys);
+    }
+
+    /**
+     * Method for mapping the keys of an index defined by the annotations to the fields of the buckets, where the
+     * attributes other than the key fields are stored in the events array.
+     *
+     * @param indexKeys the keys of the index, named by the attributes.
+     * @return the keys of the index on the buckets.
+     */
+    public Document mapIndexKeys(Document indexKeys) {
+        Document mappedIndexKeys = new Document();
+        indexKeys.forEach((field, order) -> mappedIndexKeys.append(this.mapField(field), order));
+        return mappedIndexKeys;
+    }
+
+    /**
+     * Method for creating the upserts appending a batch of records to their buckets. The records of the same
+     * bucket are appended by a single upsert with '$each', as long as they fit into a bucket.
+     *
+     * @param records the records to be added.
+     * @return the upserts.
+     */
+    public List<UpdateOneModel<Document>> createWriteModels(List<Object[]> records) {
+        Map<Document, List<Document>> bucketEvents = new LinkedHashMap<>();
+        int timeIndex = this.attributeNames.indexOf(this.timeField);
+        for (Object[] record : records) {
+            Document bucketKey = new Document();
+            Document event = new Document();
+            for (int i = 0; i < record.length; i++) {
+                String attributeName = this.attributeNames.get(i);
+                Object value = this.dateFields.contains(attributeName) && record[i] instanceof Number ?
+                        new Date(((Number) record[i]).longValue()) : record[i];
+                if (this.keyFields.contains(attributeName)) {
+                    bucketKey.append(attributeName, value);
+                } else {
+                    event.append(attributeName, value);
+                }
+            }
+            bucketKey.append(MongoTableConstants.BUCKET_FIELD_START, this.getBucketStart(record[timeIndex]));
+            bucketEvents.computeIfAbsent(bucketKey, key -> new ArrayList<>()).add(event);
+        }
+        List<UpdateOneModel<Document>> writeModels = new ArrayList<>();
+        UpdateOptions upsert = new UpdateOptions().upsert(true);
+        bucketEvents.forEach((bucketKey, events) -> {
+            for (int from = 0; from < events.size(); from += this.maxEvents) {
+                List<Document> chunk = events.subList(from, Math.min(events.size(), from + this.maxEvents));
+                // A full bucket is not matched, hence the upsert starts a new bucket for the same key and window.
+                Document bucketFilter = new Document(bucketKey).append(MongoTableConstants.BUCKET_FIELD_COUNT,
+                        new Document(FieldFilterNode.LESS_THAN_EQUAL, this.maxEvents - chunk.size()));
+                Document bucketUpdate = new Document()
+                        .append("$push", new Document(MongoTableConstants.BUCKET_FIELD_EVENTS,
+                                new Document("$each", new ArrayList<>(chunk))))
+                        .append(MongoTableConstants.MONGO_INC,
+                                new Document(MongoTableConstants.BUCKET_FIELD_COUNT, chunk.size()));
+                writeModels.add(new UpdateOneModel<>(bucketFilter, bucketUpdate, upsert));
+            }
+        });
+        return writeModels;
+    }
+
+    /**
+     * Method for creating the filter of the buckets which may contain the events matched by a resolved filter.
+     * The predicates on the key fields are kept, the predicates on the time field are converted to predicates on
+     * the start of the windows, and the other predicates are left to the predicate of the condition.
+     *
+     * @param filter the filter resolved for the attributes of the events.
+     * @return the filter of the buckets.
+     */
+    public Document createBucketFilter(Document filter) {
+        Document bucketFilter = new Document();
+        List<Document> nestedFilters = new ArrayList<>();
+        for (Map.Entry<String, Object> entry : filter.entrySet()) {
+            if (this.isBucketField(entry.getKey())) {
+                bucketFilter.append(entry.getKey(), entry.getValue());
+            } else if (entry.getKey().equals(this.timeField) && entry.getValue() instanceof Document) {
+                Document startFilter = this.createStartFilter((Document) entry.getValue());
+                if (!startFilter.isEmpty()) {
+                    bucketFilter.append(MongoTableConstants.BUCKET_FIELD_START, startFilter);
+                }
+            } else if (MongoTableConstants.MONGO_AND.equals(entry.getKey())) {
+                for (Object nestedFilter : (List<?>) entry.getValue()) {
+                    Document nestedBucketFilter = this.createBucketFilter((Document) nestedFilter);
+                    if (!nestedBucketFilter.isEmpty()) {
+                        nestedFilters.add(nestedBucketFilter);
+                    }
+                }
+            }
+        }
+        if (!nestedFilters.isEmpty()) {
+            bucketFilter.append(MongoTableConstants.MONGO_AND, nestedFilters);
+        }
+        return bucketFilter;
+    }
+
+    /**
+     * Method for checking whether a condition can be split into the filter of the buckets and the condition of the
+     * events pulled from the matched buckets. The predicates on the key fields must be joined by an AND operation
+     * with the rest of the condition, and the comparisons evaluated using '$expr' can not be applied to the events
+     * of a bucket by '$pull'.
+     *
+     * @param filter the filter built for the condition.
+     * @return true if the condition can be split.
+     */
+    public boolean isSupported(FilterNode filter) {
+        return this.isSupported(filter, false);
+    }
+
+    private boolean isSupported(FilterNode filter, boolean disjunct) {
+        if (filter instanceof ExprFilterNode) {
+            return false;
+        } else if (filter instanceof FieldFilterNode) {
+            return !disjunct || !this.isKeyField(((FieldFilterNode) filter).getField());
+        } else if (filter instanceof LogicalFilterNode) {
+            LogicalFilterNode logicalFilter = (LogicalFilterNode) filter;
+            boolean disjunctChildren = disjunct || logicalFilter.getType() != LogicalFilterNode.Type.AND;
+            return logicalFilter.getChildren().stream().allMatch(child -> this.isSupported(child, disjunctChildren));
+        }
+        return true;
+    }
+
+    /**
+     * Method for splitting a resolved filter of a delete into the filter of the buckets and the condition of the
+     * events pulled from the matched buckets.
+     *
+     * @param filter the filter resolved for the attributes of the events.
+     * @return the condition of the events, which is empty if whole buckets are deleted.
+     */
+    public Document createEventFilter(Document filter) {
+        Document eventFilter = new Document();
+        for (Map.Entry<String, Object> entry : filter.entrySet()) {
+            if (MongoTableConstants.MONGO_AND.equals(entry.getKey())) {
+                List<Document> nestedFilters = new ArrayList<>();
+                for (Object nestedFilter : (List<?>) entry.getValue()) {
+                    Document nestedEventFilter = this.createEventFilter((Document) nestedFilter);
+                    if (!nestedEventFilter.isEmpty()) {
+                        nestedFilters.add(nestedEventFilter);
+                    }
+                }
+                if (!nestedFilters.isEmpty()) {
+                    eventFilter.append(entry.getKey(), nestedFilters);
+                }
+            } else if (!this.isBucketField(entry.getKey())) {
+                eventFilter.append(entry.getKey(), entry.getValue());
+            }
+        }
+        return eventFilter;
+    }
+
+    /**
+     * Method for unwinding a bucket into the documents of its events, along with the key fields of the bucket.
+     *
+     * @param bucket the bucket.
+     * @return the documents of the events.
+     */
+    public List<Document> unwind(Document bucket) {
+        List<Document> events = new ArrayList<>();
+        Object bucketEvents = bucket.get(MongoTableConstants.BUCKET_FIELD_EVENTS);
+        if (!(bucketEvents instanceof List)) {
+            return events;
+        }
+        for (Object bucketEvent : (List<?>) bucketEvents) {
+            Document event = new Document();
+            this.keyFields.forEach(keyField -> event.append(keyField, bucket.get(keyField)));
+            event.putAll((Document) bucketEvent);
+            events.add(event);
+        }
+        return events;
+    }
+
+    private Document createStartFilter(Document timePredicates) {
+        Document startFilter = new Document();
+        for (Map.Entry<String, Object> predicate : timePredicates.entrySet()) {
+            String operator = predicate.getKey();
+            Object value = predicate.getValue();
+            if (!TIME_OPERATORS.contains(operator) || value == null) {
+                // Negations and the other predicates are only evaluated on the events.
+                continue;
+            }
+            switch (operator) {
+                case FieldFilterNode.EQUAL:
+                    startFilter.append(operator, this.getBucketStart(value));
+                    break;
+                case FieldFilterNode.IN:
+                    List<Object> starts = new ArrayList<>();
+                    ((List<?>) value).forEach(time -> starts.add(this.getBucketStart(time)));
+                    startFilter.append(operator, starts);
+                    break;
+                case FieldFilterNode.GREATER_THAN:
+                case FieldFilterNode.GREATER_THAN_EQUAL:
+                    // A window ending after the time may contain the later events.
+                    startFilter.append(FieldFilterNode.GREATER_THAN, this.toTimeValue(this.toMillis(value) -
+                            this.interval));
+                    break;
+                default:
+                    startFilter.append(operator, value);
+                    break;
+            }
+        }
+        return startFilter;
+    }
+
+    private Object getBucketStart(Object time) {
+        if (!(time instanceof Number) && !(time instanceof Date)) {
+            return null;
+        }
+        return this.toTimeValue(Math.floorDiv(this.toMillis(time), this.interval) * this.interval);
+    }
+
+    private long toMillis(Object time) {
+        return time instanceof Date ? ((Date) time).getTime() : ((Number) time).longValue();
+    }
+
+    private Object toTimeValue(long millis) {
+        return this.dateFields.contains(this.timeField) ? new Date(millis) : millis;
+    }
+
+    private String mapField(String field) {
+        return this.isKeyField(field) ? field : MongoTableConstants.BUCKET_FIELD_EVENTS + "." + field;
+    }
+
+    private boolean isBucketField(String field) {
+        // The filter of a false condition on '_id' is kept on the buckets, where it does not match any bucket.
+        return MongoTableConstants.MONGO_ID.equals(field) || this.isKeyField(field);
+    }
+
+    private boolean isKeyField(String field) {
+        int separatorIndex = field.indexOf('.');
+        return this.keyFields.contains(separatorIndex < 0 ? field : field.substring(0, separatorIndex));
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.store.mongodb;
+
+import com.mongodb.client.MongoCollection;
+import io.siddhi.core.exception.ConnectionUnavailableException;
+import org.bson.Document;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Class which routes the records and the conditions of the table to the collections storing their documents, such
+ * as the single collection of the table, its time or attribute partitions or its shards. The items of a batch are
+ * routed by their ordinals, so that the parallel lists of a batch such as the conditions, the set values and the
+ * records to be added are selected for each collection alike.
+ */
+public abstract class MongoCollectionRouter {
+
+    /**
+     * Method for routing the records being inserted to the collections storing them, preparing the collections
+     * which are written to for the first time.
+     *
+     * @param records the records.
+     * @return the routes of the records.
+     * @throws ConnectionUnavailableException if the MongoDB is not reachable while preparing a collection.
+     */
+    public abstract List<Route> routeRecords(List<Object[]> records) throws ConnectionUnavailableException;
+
+    /**
+     * Method for routing the events of a condition to the collections which may contain the documents matched by
+     * the condition. An event may be routed to several collections, or to none if it can not match any document.
+     *
+     * @param conditionParameterMaps the runtime values of the condition for each event.
+     * @param compiledCondition      the compiled condition.
+     * @return the routes of the events.
+     */
+    public abstract List<Route> routeConditions(List<Map<String, Object>> conditionParameterMaps,
+                                                MongoCompiledCondition compiledCondition);
+
+    /**
+     * Method for routing the upserts of the events to the collections which would store the added records,
+     * preparing the collections which are written to for the first time.
+     *
+     * @param conditionParameterMaps the runtime values of the condition for each event.
+     * @param addingRecords          the records to be added if the conditions do not match any document.
+     * @param compiledCondition      the compiled condition.
+     * @return the routes of the events.
+     * @throws ConnectionUnavailableException if the MongoDB is not reachable while preparing a collection.
+     */
+    public abstract List<Route> routeUpserts(List<Map<String, Object>> conditionParameterMaps,
+                                             List<Object[]> addingRecords, MongoCompiledCondition compiledCondition)
+            throws ConnectionUnavailableException;
+
+    /**
+     * Method for checking whether the routes of a batch are written in parallel, which is the case when the
+     * collections are served by different deployments.
+     *
+     * @return true if the routes are written in parallel.
+     */
+    public boolean isParallel() {
+        return false;
+    }
+
+    /**
+     * Denotes the items of a batch which are routed to a single collection.
+     */
+    public static class Route {
+        private MongoCollection<Document> collection;
+        private List<Integer> ordinals;
+
+        public Route(MongoCollection<Document> collection, List<Integer> ordinals) {
+            this.collection = collection;
+            this.ordinals = ordinals;
+        }
+
+        public MongoCollection<Document> getCollection() {
+            return collection;
+        }
+
+        public List<Integer> getOrdinals() {
+            return ordinals;
+        }
+
+        /**
+         * Method for selecting the items of the route from a list of the batch.
+         *
+         * @param items the items of the batch.
+         * @return the items routed to the collection, in the order of the batch.
+         */
+        public <T> List<T> select(List<T> items) {
+            return this.ordinals.stream().map(items::get).collect(Collectors.toList());
+        }
+    }
+}
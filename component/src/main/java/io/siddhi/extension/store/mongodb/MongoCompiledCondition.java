@@ -17,9 +17,20 @@
  */
 package io.siddhi.extension.store.mongodb;
 
+import com.mongodb.client.model.Collation;
 import io.siddhi.core.util.collection.operator.CompiledCondition;
+import io.siddhi.extension.store.mongodb.condition.FieldFilterNode;
+import io.siddhi.extension.store.mongodb.condition.FilterNode;
+import io.siddhi.extension.store.mongodb.condition.LogicalFilterNode;
+import io.siddhi.extension.store.mongodb.condition.Operand;
+import io.siddhi.extension.store.mongodb.condition.RowPredicate;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 /**
  * Implementation class of {@link CompiledCondition} corresponding to the MongoDB Event Table.
@@ -28,18 +39,69 @@ import java.util.Map;
 public class MongoCompiledCondition implements CompiledCondition {
 
     private String compiledQuery;
+    private FilterNode filter;
     private Map<String, Object> placeholders;
+    private Object hint;
+    private Collation collation;
+    private RowPredicate predicate;
+    private List<String> equalityFields;
+    private Set<String> dateFields = Collections.emptySet();
+    private List<String> primaryKeyFields;
+    private Operand partitionOperand;
+    private List<Operand> shardKeyOperands;
 
-
-    public MongoCompiledCondition(String compiledQuery, Map<String, Object> parameters) {
-        this.compiledQuery = compiledQuery;
+    public MongoCompiledCondition(FilterNode filter, Map<String, Object> parameters) {
+        this.compiledQuery = filter.toString();
         this.placeholders = parameters;
+        this.filter = filter;
+        this.equalityFields = findEqualityFields(filter);
+    }
+
+    /**
+     * Method for finding the fields compared for equality with stream variables, when the filter is such an
+     * equality or an AND operation of such equalities and predicates on constants.
+     *
+     * @param filter the filter built for the condition.
+     * @return the fields or null if the filter has any other form.
+     */
+    private static List<String> findEqualityFields(FilterNode filter) {
+        List<FilterNode> nodes = filter instanceof LogicalFilterNode &&
+                ((LogicalFilterNode) filter).getType() == LogicalFilterNode.Type.AND ?
+                ((LogicalFilterNode) filter).getChildren() : Collections.singletonList(filter);
+        List<String> equalityFields = new ArrayList<>();
+        Set<String> fields = new HashSet<>();
+        for (FilterNode node : nodes) {
+            if (!(node instanceof FieldFilterNode) || ((FieldFilterNode) node).isNegated() ||
+                    !fields.add(((FieldFilterNode) node).getField())) {
+                // Predicates on the same field are resolved with '$and' instead of a single document.
+                return null;
+            }
+            Map<String, Object> predicates = ((FieldFilterNode) node).getPredicates();
+            if (predicates.size() == 1 &&
+                    predicates.get(FieldFilterNode.EQUAL) instanceof Operand.ParameterOperand) {
+                equalityFields.add(((FieldFilterNode) node).getField());
+            } else if (!predicates.values().stream().allMatch(value -> value instanceof Operand.ConstantOperand ||
+                    (value instanceof List && ((List<?>) value).stream()
+                            .allMatch(operand -> operand instanceof Operand.ConstantOperand)))) {
+                return null;
+            }
+        }
+        return equalityFields.isEmpty() ? null : equalityFields;
     }
 
     public String getCompiledQuery() {
         return compiledQuery;
     }
 
+    /**
+     * Returns the filter built for a condition, which is resolved with the runtime values of each event.
+     *
+     * @return the filter.
+     */
+    public FilterNode getFilter() {
+        return filter;
+    }
+
     public String toString() {
         return getCompiledQuery();
     }
@@ -47,4 +109,111 @@ public class MongoCompiledCondition implements CompiledCondition {
     public Map<String, Object> getPlaceholders() {
         return placeholders;
     }
+
+    /**
+     * Returns the index hint attached to the condition, either as an index key Document or as an index name.
+     *
+     * @return the index hint or null if the condition should not be hinted.
+     */
+    public Object getHint() {
+        return hint;
+    }
+
+    public void setHint(Object hint) {
+        this.hint = hint;
+    }
+
+    /**
+     * Returns the collation to be used when executing the condition.
+     *
+     * @return the collation or null if the default collation of the collection should be used.
+     */
+    public Collation getCollation() {
+        return collation;
+    }
+
+    public void setCollation(Collation collation) {
+        this.collation = collation;
+    }
+
+    /**
+     * Returns the predicate which evaluates the condition on the records of the table in the JVM, with the same
+     * semantics as the MongoDB filter of the condition.
+     *
+     * @return the predicate.
+     */
+    public RowPredicate getPredicate() {
+        return predicate;
+    }
+
+    public void setPredicate(RowPredicate predicate) {
+        this.predicate = predicate;
+    }
+
+    /**
+     * Returns the fields compared for equality with stream variables, when the condition is such an equality or
+     * an AND operation of such equalities and predicates on constants. The filters resolved for a batch of events
+     * then only differ in the values of these fields, so that they can be combined into a single filter.
+     *
+     * @return the fields or null if the filters of the events can not be combined.
+     */
+    public List<String> getEqualityFields() {
+        return equalityFields;
+    }
+
+    /**
+     * Returns the fields holding epoch times in milliseconds which are stored as BSON Dates, so that the values
+     * compared with these fields are converted when the filter is resolved.
+     *
+     * @return the date fields.
+     */
+    public Set<String> getDateFields() {
+        return dateFields;
+    }
+
+    public void setDateFields(Set<String> dateFields) {
+        this.dateFields = dateFields;
+    }
+
+    /**
+     * Returns the fields of the primary key which is stored as '_id', so that these fields are mapped to '_id'
+     * when the filter is resolved.
+     *
+     * @return the primary key fields or null if the primary key is not stored as '_id'.
+     */
+    public List<String> getPrimaryKeyFields() {
+        return primaryKeyFields;
+    }
+
+    public void setPrimaryKeyFields(List<String> primaryKeyFields) {
+        this.primaryKeyFields = primaryKeyFields;
+    }
+
+    /**
+     * Returns the operand binding the partition field of a table partitioned by an attribute, which resolves the
+     * partition of the documents matched by the condition.
+     *
+     * @return the operand or null if the table is not partitioned by an attribute.
+     */
+    public Operand getPartitionOperand() {
+        return partitionOperand;
+    }
+
+    public void setPartitionOperand(Operand partitionOperand) {
+        this.partitionOperand = partitionOperand;
+    }
+
+    /**
+     * Returns the operands binding the fields of the primary key of a sharded table, which resolve the shard
+     * owning the documents matched by the condition.
+     *
+     * @return the operands in the order of the primary key, or null if the condition is executed on all shards.
+     */
+    public List<Operand> getShardKeyOperands() {
+        return shardKeyOperands;
+    }
+
+    public void setShardKeyOperands(List<Operand> shardKeyOperands) {
+        this.shardKeyOperands = shardKeyOperands;
+    }
 }
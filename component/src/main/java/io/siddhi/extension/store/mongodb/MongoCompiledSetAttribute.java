@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.store.mongodb;
+
+import io.siddhi.core.util.collection.operator.CompiledExpression;
+import io.siddhi.extension.store.mongodb.condition.Operand;
+import io.siddhi.extension.store.mongodb.exception.MongoTableException;
+import io.siddhi.extension.store.mongodb.util.MongoTableConstants;
+import io.siddhi.query.api.definition.Attribute;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Implementation class of {@link CompiledExpression} corresponding to a single attribute of the set clause.
+ * Maintains the MongoDB update operator, such as '$set' or '$inc', and the value operand applied by the operator.
+ */
+public class MongoCompiledSetAttribute implements CompiledExpression {
+
+    private String operator;
+    private String attributeName;
+    private Operand value;
+    private Attribute.Type valueType;
+    private boolean negated;
+    private Attribute.Type attributeType;
+    private Operand.RowFunction valueFunction;
+
+    /**
+     * Creates the set attribute for the given update operator.
+     *
+     * @param operator      the MongoDB update operator.
+     * @param attributeName the table attribute the operator refers to, or null for '$set'.
+     * @param value         the operand which should refer to stream variables and constants only.
+     * @param valueType     the type of the value operand.
+     * @param negated       whether the value should be negated, as for a subtraction compiled to '$inc'.
+     */
+    public MongoCompiledSetAttribute(String operator, String attributeName, Operand value, Attribute.Type valueType,
+                                     boolean negated) {
+        this.operator = operator;
+        this.attributeName = attributeName;
+        this.value = value;
+        this.valueType = valueType;
+        this.negated = negated;
+        // The value operand does not refer to the table attributes, hence it is evaluated without a record.
+        this.valueFunction = value.toRowFunction(Collections.emptyList());
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    /**
+     * Method for binding the set attribute to the table attribute it is assigned to. The update operators other
+     * than '$set' can only refer to the assigned attribute, and the arithmetic operators on integral attributes
+     * can only apply integral values, since MongoDB would otherwise store the result as a double.
+     *
+     * @param assignedAttribute the table attribute the set attribute is assigned to.
+     */
+    public void bind(Attribute assignedAttribute) {
+        if (this.attributeName != null && !this.attributeName.equals(assignedAttribute.getName())) {
+            throw new MongoTableException("MongoDB Event Table found the table attribute '" + this.attributeName +
+                    "' in the value of the table attribute '" + assignedAttribute.getName() + "' in the SET " +
+                    "clause. The Mongo Event table only supports the table attribute being set in its own value. " +
+                    "Please check your query and try again.");
+        }
+        if ((MongoTableConstants.MONGO_INC.equals(this.operator) ||
+                MongoTableConstants.MONGO_MUL.equals(this.operator)) &&
+                isIntegral(assignedAttribute.getType()) && !isIntegral(this.valueType)) {
+            throw new MongoTableException("MongoDB Event Table found the value of type '" + this.valueType +
+                    "' for the table attribute '" + assignedAttribute.getName() + "' of type '" +
+                    assignedAttribute.getType() + "' in the SET clause. Please check your query and try again.");
+        }
+        this.attributeType = assignedAttribute.getType();
+    }
+
+    /**
+     * Method for resolving the value applied by the update operator, converted to the type of the assigned
+     * table attribute.
+     *
+     * @param parameters the runtime values of the stream variables, keyed by the stream variable ids.
+     * @return the value.
+     */
+    public Object resolve(Map<String, Object> parameters) {
+        Object resolvedValue = this.valueFunction.apply(null, parameters);
+        if (!(resolvedValue instanceof Number)) {
+            return resolvedValue;
+        }
+        Number number = (Number) resolvedValue;
+        switch (this.attributeType != null ? this.attributeType : this.valueType) {
+            case INT:
+                return this.negated ? -number.intValue() : number.intValue();
+            case LONG:
+                return this.negated ? -number.longValue() : number.longValue();
+            case FLOAT:
+                return this.negated ? -number.floatValue() : number.floatValue();
+            case DOUBLE:
+                return this.negated ? -number.doubleValue() : number.doubleValue();
+            default:
+                return resolvedValue;
+        }
+    }
+
+    private static boolean isIntegral(Attribute.Type type) {
+        return Attribute.Type.INT.equals(type) || Attribute.Type.LONG.equals(type);
+    }
+
+    @Override
+    public String toString() {
+        return "{" + this.operator + ":" + (this.negated ? "-" : "") + this.value + "}";
+    }
+}
@@ -17,50 +17,72 @@
  */
 package io.siddhi.extension.store.mongodb;
 
+import com.mongodb.client.model.Collation;
+import com.mongodb.client.model.CollationStrength;
 import io.siddhi.core.table.record.BaseExpressionVisitor;
+import io.siddhi.extension.store.mongodb.condition.ConstantFilterNode;
+import io.siddhi.extension.store.mongodb.condition.ExprFilterNode;
+import io.siddhi.extension.store.mongodb.condition.FieldFilterNode;
+import io.siddhi.extension.store.mongodb.condition.FilterNode;
+import io.siddhi.extension.store.mongodb.condition.LogicalFilterNode;
+import io.siddhi.extension.store.mongodb.condition.Operand;
 import io.siddhi.extension.store.mongodb.exception.MongoTableException;
-import io.siddhi.extension.store.mongodb.util.Constant;
 import io.siddhi.extension.store.mongodb.util.MongoTableConstants;
+import io.siddhi.extension.store.mongodb.util.MongoTableUtils;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.expression.condition.Compare;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.Stack;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Class which is used by the Siddhi runtime for instructions on converting the SiddhiQL condition to the condition
- * format understood by the MongoDB.
+ * format understood by the MongoDB. The condition is built as a tree of {@link FilterNode}s, which is normalized
+ * once the whole condition has been visited.
  */
 public class MongoExpressionVisitor extends BaseExpressionVisitor {
-    private Stack<String> conditionOperands;
+    private Stack<Object> conditionOperands;
     private Map<String, Object> placeholders;
+    private Stack<Integer> functionOperandIndices;
+    private Collation collation;
+    private Set<String> dateFields;
+    private Map<String, Attribute.Type> attributeTypes;
 
     private int streamVarCount;
-    private int constantCount;
 
-    public MongoExpressionVisitor() {
+    public MongoExpressionVisitor(Set<String> dateFields) {
+        this.dateFields = dateFields;
+        this.attributeTypes = new HashMap<>();
         this.streamVarCount = 0;
-        this.constantCount = 0;
         this.conditionOperands = new Stack<>();
         this.placeholders = new HashMap<>();
+        this.functionOperandIndices = new Stack<>();
     }
 
-    public String getCompiledCondition() {
-        String compiledCondition = this.conditionOperands.pop();
-        for (Map.Entry<String, Object> entry : this.placeholders.entrySet()) {
-            if (entry.getValue() instanceof Constant) {
-                Constant constant = (Constant) entry.getValue();
-                if (constant.getType().equals(Attribute.Type.STRING)) {
-                    compiledCondition = compiledCondition.replaceAll(entry.getKey(),
-                            "'" + constant.getValue().toString() + "'");
-                } else {
-                    compiledCondition = compiledCondition.replaceAll(entry.getKey(),
-                            constant.getValue().toString());
-                }
-                this.placeholders.remove(entry.getKey());
+    public FilterNode getCompiledCondition() {
+        Object operand = this.conditionOperands.pop();
+        FilterNode compiledCondition = this.toFilterNode(operand);
+        if (compiledCondition == null) {
+            throw new MongoTableException("MongoDB Event Table found operand '" + operand + "' as the condition. " +
+                    "The Mongo Event table only supports conditions which evaluate to a boolean. Please check " +
+                    "your query and try again.");
+        }
+        compiledCondition = compiledCondition.normalize();
+        if (compiledCondition instanceof FieldFilterNode) {
+            Object regex = ((FieldFilterNode) compiledCondition).getPredicates().get(FieldFilterNode.REGEX);
+            if (regex instanceof Operand.RegexOperand && ((Operand.RegexOperand) regex).isCaseInsensitive() &&
+                    ((Operand.RegexOperand) regex).isAnchoredLiteral() &&
+                    ((FieldFilterNode) compiledCondition).getPredicates().size() == 1) {
+                // A case insensitive equality on its own can be served by an index with the same collation.
+                compiledCondition = new FieldFilterNode(((FieldFilterNode) compiledCondition).getField(),
+                        FieldFilterNode.EQUAL, ((Operand.RegexOperand) regex).getValue());
+                this.collation = Collation.builder().locale(MongoTableConstants.CASE_INSENSITIVE_LOCALE)
+                        .collationStrength(CollationStrength.SECONDARY).build();
             }
         }
         return compiledCondition;
@@ -70,20 +92,44 @@ public class MongoExpressionVisitor extends BaseExpressionVisitor {
         return placeholders;
     }
 
+    /**
+     * Returns the collation which should be used when executing the compiled condition.
+     *
+     * @return the collation or null if the default collation of the collection should be used.
+     */
+    public Collation getCollation() {
+        return collation;
+    }
+
+    /**
+     * Method for converting an operand of a logical operation to a filter node. Boolean constants are accepted
+     * as well, since Siddhi uses the constant 'true' for operations without a condition.
+     *
+     * @param operand the operand of the logical operation.
+     * @return the filter node or null if the operand is not a boolean condition.
+     */
+    private FilterNode toFilterNode(Object operand) {
+        if (operand instanceof FilterNode) {
+            return (FilterNode) operand;
+        } else if (operand instanceof Operand.ConstantOperand &&
+                ((Operand.ConstantOperand) operand).getValue() instanceof Boolean) {
+            return ConstantFilterNode.valueOf((Boolean) ((Operand.ConstantOperand) operand).getValue());
+        }
+        return null;
+    }
+
     @Override
     public void beginVisitAnd() {
     }
 
     @Override
     public void endVisitAnd() {
-        String rightOperand = this.conditionOperands.pop();
-        String leftOperand = this.conditionOperands.pop();
-        if (rightOperand.matches(MongoTableConstants.REG_EXPRESSION) &&
-                leftOperand.matches(MongoTableConstants.REG_EXPRESSION)) {
-            String andFilter = MongoTableConstants.MONGO_AND_FILTER
-                    .replace(MongoTableConstants.PLACEHOLDER_LEFT_OPERAND, leftOperand)
-                    .replace(MongoTableConstants.PLACEHOLDER_RIGHT_OPERAND, rightOperand);
-            this.conditionOperands.push(andFilter);
+        Object rightOperand = this.conditionOperands.pop();
+        Object leftOperand = this.conditionOperands.pop();
+        FilterNode rightFilter = this.toFilterNode(rightOperand);
+        FilterNode leftFilter = this.toFilterNode(leftOperand);
+        if (rightFilter != null && leftFilter != null) {
+            this.conditionOperands.push(new LogicalFilterNode(LogicalFilterNode.Type.AND, leftFilter, rightFilter));
         } else {
             throw new MongoTableException("MongoDB Event Table found operands '" + leftOperand + "' and '" +
                     rightOperand + "' for AND operation. Mongo Event table only supports AND operation between " +
@@ -113,14 +159,13 @@ public class MongoExpressionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void endVisitOr() {
-        String rightOperand = this.conditionOperands.pop();
-        String leftOperand = this.conditionOperands.pop();
-        if (rightOperand.matches(MongoTableConstants.REG_EXPRESSION) &&
-                leftOperand.matches(MongoTableConstants.REG_EXPRESSION)) {
-            String orFilter = MongoTableConstants.MONGO_OR_FILTER
-                    .replace(MongoTableConstants.PLACEHOLDER_LEFT_OPERAND, leftOperand)
-                    .replace(MongoTableConstants.PLACEHOLDER_RIGHT_OPERAND, rightOperand);
-            this.conditionOperands.push(orFilter);
+        Object rightOperand = this.conditionOperands.pop();
+        Object leftOperand = this.conditionOperands.pop();
+        FilterNode rightFilter = this.toFilterNode(rightOperand);
+        FilterNode leftFilter = this.toFilterNode(leftOperand);
+        if (rightFilter != null && leftFilter != null) {
+            // Chains of equalities on the same field are collapsed into a single '$in' check on normalization.
+            this.conditionOperands.push(new LogicalFilterNode(LogicalFilterNode.Type.OR, leftFilter, rightFilter));
         } else {
             throw new MongoTableException("MongoDB Event Table found operands '" + leftOperand + "' and '" +
                     rightOperand + "' for OR operation.The Mongo Event table only supports OR operation between " +
@@ -150,20 +195,15 @@ public class MongoExpressionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void endVisitNot() {
-        String operand = this.conditionOperands.pop();
-        Pattern pattern = Pattern.compile(MongoTableConstants.REG_SIMPLE_EXPRESSION);
-        Matcher matcher = pattern.matcher(operand);
-        if (matcher.find()) {
-            String fieldName = matcher.group(1);
-            operand = operand.replace(fieldName, MongoTableConstants.MONGO_NOT);
-            String notFilter = MongoTableConstants.MONGO_NOT_FILTER
-                    .replace(MongoTableConstants.PLACEHOLDER_FIELD_NAME, fieldName)
-                    .replace(MongoTableConstants.PLACEHOLDER_OPERAND, operand);
-            this.conditionOperands.push(notFilter);
+        Object operand = this.conditionOperands.pop();
+        FilterNode filter = this.toFilterNode(operand);
+        if (filter != null) {
+            // The negation is pushed down to the predicates, using De Morgan's laws for logical operations.
+            this.conditionOperands.push(filter.negate());
         } else {
             throw new MongoTableException("MongoDB Event Table found operand '" + operand + "' for NOT operation. " +
-                    "The Mongo Event table only supports NOT operation on simple expression such as compare and null " +
-                    "check. Please check your query and try again.");
+                    "The Mongo Event table only supports NOT operation on conditions. Please check your query and " +
+                    "try again.");
         }
     }
 
@@ -173,70 +213,65 @@ public class MongoExpressionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void endVisitCompare(Compare.Operator operator) {
-        String compareFilter = MongoTableConstants.MONGO_COMPARE_FILTER;
+        Object rightOperand = this.conditionOperands.pop();
+        Object leftOperand = this.conditionOperands.pop();
+        if (!(rightOperand instanceof Operand) || !(leftOperand instanceof Operand) ||
+                rightOperand instanceof Operand.RegexOperand || leftOperand instanceof Operand.RegexOperand) {
+            throw new MongoTableException("MongoDB Event Table found operands '" + leftOperand + "' and '" +
+                    rightOperand + "' for COMPARE operation. The Mongo Event table does not supports COMPARE " +
+                    "operation between expressions. Please check your query and try again.");
+        }
+        Operand left = (Operand) leftOperand;
+        Operand right = (Operand) rightOperand;
+        if (left instanceof Operand.MathOperand || right instanceof Operand.MathOperand ||
+                (left instanceof Operand.AttributeOperand && right instanceof Operand.AttributeOperand)) {
+            // Comparisons on computed values or between two attributes can only be evaluated with '$expr'.
+            this.conditionOperands.push(ExprFilterNode.guarded(this.toCompareOperator(operator, false), left,
+                    right));
+        } else if (left instanceof Operand.AttributeOperand && right.isValue()) {
+            this.conditionOperands.push(new FieldFilterNode(((Operand.AttributeOperand) left).getName(),
+                    this.toCompareOperator(operator, false), right));
+        } else if (right instanceof Operand.AttributeOperand && left.isValue()) {
+            // The operands are swapped so that the attribute is on the left, hence the operator is mirrored.
+            this.conditionOperands.push(new FieldFilterNode(((Operand.AttributeOperand) right).getName(),
+                    this.toCompareOperator(operator, true), left));
+        } else {
+            throw new MongoTableException("MongoDB Event Table found operands '" + leftOperand + "' and '" +
+                    rightOperand + "' for COMPARE operation. The Mongo Event table only supports COMPARE " +
+                    "operation between table attribute and Stream variable/ Constant. Please check your query " +
+                    "and try again.");
+        }
+    }
+
+    /**
+     * Method for converting a Siddhi compare operator to the MongoDB operator.
+     *
+     * @param operator the Siddhi compare operator.
+     * @param mirrored whether the operands of the comparison are swapped.
+     * @return the MongoDB operator.
+     */
+    private String toCompareOperator(Compare.Operator operator, boolean mirrored) {
         switch (operator) {
             case EQUAL:
-                compareFilter = compareFilter.replace(
-                        MongoTableConstants.PLACEHOLDER_COMPARE_OPERATOR,
-                        MongoTableConstants.MONGO_COMPARE_EQUAL);
-                break;
+                return MongoTableConstants.MONGO_COMPARE_EQUAL;
             case GREATER_THAN:
-                compareFilter = compareFilter.replace(
-                        MongoTableConstants.PLACEHOLDER_COMPARE_OPERATOR,
-                        MongoTableConstants.MONGO_COMPARE_GREATER_THAN);
-                break;
+                return mirrored ? MongoTableConstants.MONGO_COMPARE_LESS_THAN :
+                        MongoTableConstants.MONGO_COMPARE_GREATER_THAN;
             case GREATER_THAN_EQUAL:
-                compareFilter = compareFilter.replace(
-                        MongoTableConstants.PLACEHOLDER_COMPARE_OPERATOR,
-                        MongoTableConstants.MONGO_COMPARE_GREATER_THAN_EQUAL);
-                break;
+                return mirrored ? MongoTableConstants.MONGO_COMPARE_LESS_THAN_EQUAL :
+                        MongoTableConstants.MONGO_COMPARE_GREATER_THAN_EQUAL;
             case LESS_THAN:
-                compareFilter = compareFilter.replace(
-                        MongoTableConstants.PLACEHOLDER_COMPARE_OPERATOR,
-                        MongoTableConstants.MONGO_COMPARE_LESS_THAN);
-                break;
+                return mirrored ? MongoTableConstants.MONGO_COMPARE_GREATER_THAN :
+                        MongoTableConstants.MONGO_COMPARE_LESS_THAN;
             case LESS_THAN_EQUAL:
-                compareFilter = compareFilter
-                        .replace(MongoTableConstants.PLACEHOLDER_COMPARE_OPERATOR,
-                                MongoTableConstants.MONGO_COMPARE_LESS_THAN_EQUAL);
-                break;
+                return mirrored ? MongoTableConstants.MONGO_COMPARE_GREATER_THAN_EQUAL :
+                        MongoTableConstants.MONGO_COMPARE_LESS_THAN_EQUAL;
             case NOT_EQUAL:
-                compareFilter = compareFilter
-                        .replace(MongoTableConstants.PLACEHOLDER_COMPARE_OPERATOR,
-                                MongoTableConstants.MONGO_COMPARE_NOT_EQUAL);
-                break;
+                return MongoTableConstants.MONGO_COMPARE_NOT_EQUAL;
             default:
                 throw new MongoTableException("MongoDB Event Table found unknown operator '" + operator + "' for " +
                         "COMPARE operation. Please check your query and try again.");
         }
-
-        String rightOperand = this.conditionOperands.pop();
-        String leftOperand = this.conditionOperands.pop();
-        if (!rightOperand.matches(MongoTableConstants.REG_EXPRESSION) &&
-                !leftOperand.matches(MongoTableConstants.REG_EXPRESSION)) {
-            if (leftOperand.matches(MongoTableConstants.REG_STREAMVAR_OR_CONST) !=
-                    rightOperand.matches(MongoTableConstants.REG_STREAMVAR_OR_CONST)) {
-                if (!rightOperand.matches(MongoTableConstants.REG_STREAMVAR_OR_CONST)) {
-                    compareFilter = compareFilter
-                            .replace(MongoTableConstants.PLACEHOLDER_LEFT_OPERAND, rightOperand)
-                            .replace(MongoTableConstants.PLACEHOLDER_RIGHT_OPERAND, leftOperand);
-                } else {
-                    compareFilter = compareFilter
-                            .replace(MongoTableConstants.PLACEHOLDER_LEFT_OPERAND, leftOperand)
-                            .replace(MongoTableConstants.PLACEHOLDER_RIGHT_OPERAND, rightOperand);
-                }
-                this.conditionOperands.push(compareFilter);
-            } else {
-                throw new MongoTableException("MongoDB Event Table found operands '" + leftOperand + "' and '" +
-                        rightOperand + "' for COMPARE operation. The Mongo Event table only supports COMPARE " +
-                        "operation between table attribute and Stream variable/ Constant. Please check your query " +
-                        "and try again.");
-            }
-        } else {
-            throw new MongoTableException("MongoDB Event Table found operands '" + leftOperand + "' and '" +
-                    rightOperand + "' for COMPARE operation. The Mongo Event table does not supports COMPARE " +
-                    "operation between expressions. Please check your query and try again.");
-        }
     }
 
     @Override
@@ -264,12 +299,9 @@ public class MongoExpressionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void endVisitIsNull(String streamId) {
-        String operand = this.conditionOperands.pop();
-        if (!operand.matches(MongoTableConstants.REG_EXPRESSION) &&
-                !operand.matches(MongoTableConstants.REG_STREAMVAR_OR_CONST)) {
-            String isNullFilter = MongoTableConstants.MONGO_IS_NULL_FILTER
-                    .replace(MongoTableConstants.PLACEHOLDER_OPERAND, operand);
-            this.conditionOperands.push(isNullFilter);
+        Object operand = this.conditionOperands.pop();
+        if (operand instanceof Operand.AttributeOperand) {
+            this.conditionOperands.push(FieldFilterNode.isNull(((Operand.AttributeOperand) operand).getName()));
         } else {
             throw new MongoTableException("MongoDB Event Table found operand '" + operand + "' for is NULL operation." +
                     " The Mongo Event table only supports is NULL operation on a table attribute. Please check your" +
@@ -279,8 +311,10 @@ public class MongoExpressionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void beginVisitIn(String storeId) {
-        throw new MongoTableException("MongoDB Event Table does not support IN operations. Please check your" +
-                " query and try again.");
+        throw new MongoTableException("MongoDB Event Table found an IN operation on the store '" + storeId + "'. " +
+                "An IN operation tests whether any record of the store satisfies its condition, which is true or " +
+                "false for all the documents at once and can not be compiled to a filter of the documents. " +
+                "Please check your query and try again.");
     }
 
     @Override
@@ -289,12 +323,64 @@ public class MongoExpressionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void beginVisitMath(MathOperator mathOperator) {
-        throw new MongoTableException("The Mongo Event table do not support MATH operations. " +
-                " Please check your query and try again.");
     }
 
     @Override
     public void endVisitMath(MathOperator mathOperator) {
+        String mathOperatorName;
+        switch (mathOperator) {
+            case ADD:
+                mathOperatorName = MongoTableConstants.MONGO_ADD;
+                break;
+            case SUBTRACT:
+                mathOperatorName = MongoTableConstants.MONGO_SUBTRACT;
+                break;
+            case MULTIPLY:
+                mathOperatorName = MongoTableConstants.MONGO_MULTIPLY;
+                break;
+            case DIVIDE:
+                mathOperatorName = MongoTableConstants.MONGO_DIVIDE;
+                break;
+            case MOD:
+                mathOperatorName = MongoTableConstants.MONGO_MOD;
+                break;
+            default:
+                throw new MongoTableException("MongoDB Event Table found unknown operator '" + mathOperator +
+                        "' for MATH operation. Please check your query and try again.");
+        }
+        Object rightOperand = this.conditionOperands.pop();
+        Object leftOperand = this.conditionOperands.pop();
+        if (!(rightOperand instanceof Operand) || !(leftOperand instanceof Operand) ||
+                rightOperand instanceof Operand.RegexOperand || leftOperand instanceof Operand.RegexOperand) {
+            throw new MongoTableException("MongoDB Event Table found operands '" + leftOperand + "' and '" +
+                    rightOperand + "' for MATH operation. The Mongo Event table only supports MATH operations on " +
+                    "table attributes, stream variables, constants and MATH operations. Please check your query " +
+                    "and try again.");
+        }
+        this.conditionOperands.push(new Operand.MathOperand(mathOperatorName, (Operand) leftOperand,
+                (Operand) rightOperand, this.isIntegral((Operand) leftOperand) &&
+                this.isIntegral((Operand) rightOperand)));
+    }
+
+    /**
+     * Method for checking whether an operand of a MATH operation is of the type INT or LONG, in which case Siddhi
+     * truncates the result of a division.
+     *
+     * @param operand the operand of the MATH operation.
+     * @return true if the operand is of the type INT or LONG.
+     */
+    private boolean isIntegral(Operand operand) {
+        Attribute.Type type = null;
+        if (operand instanceof Operand.MathOperand) {
+            return ((Operand.MathOperand) operand).isIntegral();
+        } else if (operand instanceof Operand.ConstantOperand) {
+            type = ((Operand.ConstantOperand) operand).getType();
+        } else if (operand instanceof Operand.ParameterOperand) {
+            type = ((Operand.ParameterOperand) operand).getAttribute().getType();
+        } else if (operand instanceof Operand.AttributeOperand) {
+            type = this.attributeTypes.get(((Operand.AttributeOperand) operand).getName());
+        }
+        return Attribute.Type.INT.equals(type) || Attribute.Type.LONG.equals(type);
     }
 
     @Override
@@ -315,13 +401,101 @@ public class MongoExpressionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void beginVisitAttributeFunction(String namespace, String functionName) {
-        throw new MongoTableException("The Mongo Event table do not support Attribute functions. " +
-                " Please check your query and try again.");
+        this.functionOperandIndices.push(this.conditionOperands.size());
     }
 
 
     @Override
     public void endVisitAttributeFunction(String namespace, String functionName) {
+        int operandIndex = this.functionOperandIndices.pop();
+        List<Object> parameters = new ArrayList<>(this.conditionOperands.subList(operandIndex,
+                this.conditionOperands.size()));
+        this.conditionOperands.setSize(operandIndex);
+        String function = (MongoTableUtils.isEmpty(namespace) ? "" : namespace + ":") + functionName;
+        if (MongoTableConstants.FUNCTION_NESTED_FIELD.equals(function.toLowerCase(Locale.ENGLISH))) {
+            this.conditionOperands.push(this.createNestedField(parameters));
+            return;
+        }
+        if (parameters.size() != 2) {
+            throw new MongoTableException("MongoDB Event Table found " + parameters.size() + " parameters for the " +
+                    "function '" + function + "'. The Mongo Event table only supports the functions 'str:contains'," +
+                    " 'str:startsWith', 'str:endsWith', 'str:equalsIgnoreCase' and 'regex:matches' with two " +
+                    "parameters. Please check your query and try again.");
+        }
+        switch (function.toLowerCase(Locale.ENGLISH)) {
+            case MongoTableConstants.FUNCTION_CONTAINS:
+                this.conditionOperands.push(this.createRegexFilter(function, parameters.get(0), parameters.get(1),
+                        "", "", true, false));
+                break;
+            case MongoTableConstants.FUNCTION_STARTS_WITH:
+                this.conditionOperands.push(this.createRegexFilter(function, parameters.get(0), parameters.get(1),
+                        "^", "", true, false));
+                break;
+            case MongoTableConstants.FUNCTION_ENDS_WITH:
+                this.conditionOperands.push(this.createRegexFilter(function, parameters.get(0), parameters.get(1),
+                        "", "$", true, false));
+                break;
+            case MongoTableConstants.FUNCTION_REGEX_MATCHES:
+                // The regex is matched against the whole input, as done by Matcher.matches().
+                this.conditionOperands.push(this.createRegexFilter(function, parameters.get(1), parameters.get(0),
+                        "^(?:", ")$", false, false));
+                break;
+            case MongoTableConstants.FUNCTION_EQUALS_IGNORE_CASE:
+                boolean attributeFirst = parameters.get(0) instanceof Operand.AttributeOperand;
+                this.conditionOperands.push(this.createRegexFilter(function, parameters.get(attributeFirst ? 0 : 1),
+                        parameters.get(attributeFirst ? 1 : 0), "^", "$", true, true));
+                break;
+            default:
+                throw new MongoTableException("MongoDB Event Table found the function '" + function + "'. The " +
+                        "Mongo Event table only supports the functions 'str:contains', 'str:startsWith', " +
+                        "'str:endsWith', 'str:equalsIgnoreCase' and 'regex:matches'. Please check your query and " +
+                        "try again.");
+        }
+    }
+
+    /**
+     * Method for resolving the 'mongodb:field' function on a table attribute to the dot notation path of the
+     * nested field, which is then used as any other table attribute.
+     *
+     * @param parameters the parameters of the function.
+     * @return the table attribute referring to the nested field.
+     */
+    private Operand createNestedField(List<Object> parameters) {
+        Object attribute = parameters.get(0);
+        Object path = parameters.size() > 1 ? parameters.get(1) : null;
+        if (!(attribute instanceof Operand.AttributeOperand) || !(path instanceof Operand.ConstantOperand) ||
+                !(((Operand.ConstantOperand) path).getValue() instanceof String)) {
+            throw new MongoTableException("MongoDB Event Table found parameters '" + parameters + "' for the " +
+                    "function '" + MongoTableConstants.FUNCTION_NESTED_FIELD + "'. The Mongo Event table only " +
+                    "supports the function on a table attribute with a constant path. Please check your query " +
+                    "and try again.");
+        }
+        return new Operand.AttributeOperand(((Operand.AttributeOperand) attribute).getName() + "." +
+                ((Operand.ConstantOperand) path).getValue());
+    }
+
+    /**
+     * Method for building a '$regex' filter on a table attribute, for a stream variable or a constant.
+     *
+     * @param function        the name of the function which is compiled.
+     * @param field           the operand which should refer to the table attribute.
+     * @param value           the operand which should refer to the stream variable or the constant.
+     * @param prefix          the prefix of the regular expression, such as an anchor.
+     * @param suffix          the suffix of the regular expression, such as an anchor.
+     * @param literal         whether the value should be matched literally.
+     * @param caseInsensitive whether the value should be matched case insensitively.
+     * @return the '$regex' filter.
+     */
+    private FilterNode createRegexFilter(String function, Object field, Object value, String prefix, String suffix,
+                                         boolean literal, boolean caseInsensitive) {
+        if (!(field instanceof Operand.AttributeOperand) || !(value instanceof Operand) ||
+                !((Operand) value).isValue() || value instanceof Operand.RegexOperand) {
+            throw new MongoTableException("MongoDB Event Table found operands '" + field + "' and '" + value +
+                    "' for the function '" + function + "'. The Mongo Event table only supports the function " +
+                    "between table attribute and Stream variable/ Constant. Please check your query and try again.");
+        }
+        return new FieldFilterNode(((Operand.AttributeOperand) field).getName(), FieldFilterNode.REGEX,
+                new Operand.RegexOperand((Operand) value, prefix, suffix, literal, caseInsensitive));
     }
 
     @Override
@@ -335,8 +509,9 @@ public class MongoExpressionVisitor extends BaseExpressionVisitor {
     @Override
     public void beginVisitStreamVariable(String id, String streamId, String attributeName, Attribute.Type type) {
         String name = this.generateStreamVarName();
-        this.placeholders.put(name, new Attribute(id, type));
-        conditionOperands.push(name);
+        Attribute attribute = new Attribute(id, type);
+        this.placeholders.put(name, attribute);
+        this.conditionOperands.push(new Operand.ParameterOperand(name, attribute));
     }
 
     @Override
@@ -345,9 +520,7 @@ public class MongoExpressionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void beginVisitConstant(Object value, Attribute.Type type) {
-        String name = this.generateConstantName();
-        this.placeholders.put(name, new Constant(value, type));
-        conditionOperands.push(name);
+        this.conditionOperands.push(new Operand.ConstantOperand(value, type));
     }
 
     @Override
@@ -356,7 +529,10 @@ public class MongoExpressionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void beginVisitStoreVariable(String storeId, String attributeName, Attribute.Type type) {
-        this.conditionOperands.push(attributeName);
+        this.attributeTypes.put(attributeName, type);
+        // The date fields are stored as BSON Dates, which are converted to epoch times inside '$expr'.
+        this.conditionOperands.push(this.dateFields.contains(attributeName) ?
+                new Operand.DateAttributeOperand(attributeName) : new Operand.AttributeOperand(attributeName));
     }
 
     @Override
@@ -373,15 +549,4 @@ public class MongoExpressionVisitor extends BaseExpressionVisitor {
         this.streamVarCount++;
         return name;
     }
-
-    /**
-     * Method for generating a temporary placeholder for constants.
-     *
-     * @return a placeholder string of known format.
-     */
-    private String generateConstantName() {
-        String name = "const" + this.constantCount;
-        this.constantCount++;
-        return name;
-    }
 }
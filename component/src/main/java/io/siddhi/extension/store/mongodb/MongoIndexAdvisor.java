@@ -0,0 +1,333 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.store.mongodb;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoDatabase;
+import io.siddhi.extension.store.mongodb.util.MongoTableUtils;
+import io.siddhi.query.api.definition.Attribute;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Class which compares the filters generated for the compiled conditions of the MongoDB Event Table with the
+ * indices of the collection, and reports the conditions which would be executed as collection scans or would need
+ * an in-memory sort, along with a suggested compound index.
+ */
+public class MongoIndexAdvisor {
+    private static final Log log = LogFactory.getLog(MongoIndexAdvisor.class);
+    private static final int MAX_FILTER_SHAPES = 16;
+    private static final String PLAN_COLLECTION_SCAN = "COLLSCAN";
+    private static final String PLAN_SORT = "SORT";
+
+    private String collectionName;
+    private boolean explain;
+    private List<MongoCompiledCondition> compiledConditions;
+
+    public MongoIndexAdvisor(String collectionName, boolean explain) {
+        this.collectionName = collectionName;
+        this.explain = explain;
+        this.compiledConditions = new CopyOnWriteArrayList<>();
+    }
+
+    public void addCompiledCondition(MongoCompiledCondition compiledCondition) {
+        this.compiledConditions.add(compiledCondition);
+    }
+
+    List<MongoCompiledCondition> getCompiledConditions() {
+        return Collections.unmodifiableList(this.compiledConditions);
+    }
+
+    /**
+     * Method for advising all the compiled conditions against the given indices.
+     *
+     * @param database  the database which contains the collection, used when the plans are explained.
+     * @param indexKeys the key documents of the existing and the expected indices.
+     * @return List of Documents describing the conditions which can not be served by the indices.
+     */
+    public List<Document> advise(MongoDatabase database, List<Document> indexKeys) {
+        List<Document> advice = new ArrayList<>();
+        for (MongoCompiledCondition compiledCondition : this.compiledConditions) {
+            advice.addAll(this.advise(compiledCondition, database, indexKeys));
+        }
+        return advice;
+    }
+
+    /**
+     * Method for advising a single compiled condition against the given indices.
+     *
+     * @param compiledCondition the compiled condition to be advised.
+     * @param database          the database which contains the collection, used when the plans are explained.
+     * @param indexKeys         the key documents of the existing and the expected indices.
+     * @return List of Documents describing the filter shapes of the condition which can not be served by the indices.
+     */
+    public List<Document> advise(MongoCompiledCondition compiledCondition, MongoDatabase database,
+                                 List<Document> indexKeys) {
+        Document filter = MongoTableUtils.resolveCondition(compiledCondition,
+                createSampleParameters(compiledCondition));
+        if (filter.isEmpty()) {
+            return Collections.emptyList();
+        }
+        String explainedPlan = null;
+        if (this.explain) {
+            Set<String> stages = null;
+            String failure;
+            try {
+                stages = this.explainStages(database, filter);
+                failure = "the explain result carrying no query plan";
+            } catch (MongoException | ClassCastException e) {
+                failure = e.getMessage();
+            }
+            if (stages == null) {
+                log.warn("Explaining the filter '" + filter.toJson() + "' on the collection '" + this.collectionName +
+                        "' failed due to " + failure + ". Falling back to comparing with the indices.");
+            } else if (stages.contains(PLAN_COLLECTION_SCAN)) {
+                explainedPlan = PLAN_COLLECTION_SCAN;
+            } else if (stages.contains(PLAN_SORT)) {
+                explainedPlan = PLAN_SORT;
+            } else {
+                return Collections.emptyList();
+            }
+        }
+        List<Document> advice = new ArrayList<>();
+        for (FilterShape filterShape : collectFilterShapes(filter)) {
+            if (!filterShape.isServedBy(indexKeys)) {
+                advice.add(this.createAdvice(compiledCondition,
+                        explainedPlan == null ? PLAN_COLLECTION_SCAN : explainedPlan, filterShape.suggestIndex()));
+            }
+        }
+        if (explainedPlan != null && advice.isEmpty()) {
+            advice.add(this.createAdvice(compiledCondition, explainedPlan, new Document()));
+        }
+        return advice;
+    }
+
+    private Document createAdvice(MongoCompiledCondition compiledCondition, String plan, Document suggestedIndex) {
+        Document conditionAdvice = new Document()
+                .append("collection", this.collectionName)
+                .append("condition", compiledCondition.getCompiledQuery())
+                .append("plan", plan);
+        if (!suggestedIndex.isEmpty()) {
+            conditionAdvice.append("suggestedIndex", suggestedIndex);
+        }
+        return conditionAdvice;
+    }
+
+    /**
+     * Method for explaining the filter against the live collection.
+     *
+     * @return the stages of the winning plan, or null if the explain result carries no query plan.
+     */
+    private Set<String> explainStages(MongoDatabase database, Document filter) {
+        Document explainResult = database.runCommand(new Document()
+                .append("explain", new Document("find", this.collectionName).append("filter", filter))
+                .append("verbosity", "queryPlanner"));
+        Document queryPlanner = (Document) explainResult.get("queryPlanner");
+        if (queryPlanner == null || queryPlanner.get("winningPlan") == null) {
+            return null;
+        }
+        Set<String> stages = new LinkedHashSet<>();
+        collectStages((Document) queryPlanner.get("winningPlan"), stages);
+        return stages;
+    }
+
+    private static void collectStages(Document plan, Set<String> stages) {
+        if (plan == null) {
+            return;
+        }
+        stages.add(plan.getString("stage"));
+        collectStages((Document) plan.get("inputStage"), stages);
+        List<?> inputStages = (List<?>) plan.get("inputStages");
+        if (inputStages != null) {
+            for (Object inputStage : inputStages) {
+                collectStages((Document) inputStage, stages);
+            }
+        }
+    }
+
+    /**
+     * Method for creating sample values for the stream variables of the condition, so that the shape of the filter
+     * can be resolved before any event arrives.
+     */
+    static Map<String, Object> createSampleParameters(MongoCompiledCondition compiledCondition) {
+        Map<String, Object> sampleParameters = new HashMap<>();
+        for (Object placeholder : compiledCondition.getPlaceholders().values()) {
+            if (placeholder instanceof Attribute) {
+                Attribute attribute = (Attribute) placeholder;
+                switch (attribute.getType()) {
+                    case STRING:
+                        sampleParameters.put(attribute.getName(), "");
+                        break;
+                    case BOOL:
+                        sampleParameters.put(attribute.getName(), false);
+                        break;
+                    default:
+                        sampleParameters.put(attribute.getName(), 0);
+                        break;
+                }
+            }
+        }
+        return sampleParameters;
+    }
+
+    /**
+     * Method for checking whether every conjunctive shape of the condition can be served by the given index.
+     *
+     * @param compiledCondition the compiled condition to be checked.
+     * @param indexKeys         the key document of the index.
+     * @return true if the leading field of the index is used by every shape of the condition.
+     */
+    static boolean isServedBy(MongoCompiledCondition compiledCondition, Document indexKeys) {
+        Document filter = MongoTableUtils.resolveCondition(compiledCondition,
+                createSampleParameters(compiledCondition));
+        if (filter.isEmpty()) {
+            return false;
+        }
+        for (FilterShape filterShape : collectFilterShapes(filter)) {
+            if (!filterShape.isServedBy(Collections.singletonList(indexKeys))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Method for splitting a filter into the conjunctive shapes that the query planner has to serve with an index.
+     * Every branch of an '$or' has to be served by an index to avoid a collection scan.
+     */
+    static List<FilterShape> collectFilterShapes(Document filter) {
+        List<FilterShape> shapes = new ArrayList<>();
+        shapes.add(new FilterShape());
+        for (Map.Entry<String, Object> entry : filter.entrySet()) {
+            switch (entry.getKey()) {
+                case "$and":
+                    for (Object child : (List<?>) entry.getValue()) {
+                        shapes = combine(shapes, collectFilterShapes((Document) child));
+                    }
+                    break;
+                case "$or":
+                    List<FilterShape> branches = new ArrayList<>();
+                    for (Object child : (List<?>) entry.getValue()) {
+                        branches.addAll(collectFilterShapes((Document) child));
+                    }
+                    shapes = combine(shapes, branches);
+                    break;
+                default:
+                    if (!entry.getKey().startsWith("$")) {
+                        for (FilterShape shape : shapes) {
+                            shape.addPredicate(entry.getKey(), entry.getValue());
+                        }
+                    }
+                    break;
+            }
+        }
+        return shapes;
+    }
+
+    private static List<FilterShape> combine(List<FilterShape> shapes, List<FilterShape> otherShapes) {
+        if (shapes.size() * otherShapes.size() > MAX_FILTER_SHAPES) {
+            return shapes;
+        }
+        List<FilterShape> combinedShapes = new ArrayList<>();
+        for (FilterShape shape : shapes) {
+            for (FilterShape otherShape : otherShapes) {
+                combinedShapes.add(shape.merge(otherShape));
+            }
+        }
+        return combinedShapes;
+    }
+
+    /**
+     * Class representing a conjunction of predicates, classified into the fields which are matched by equality and
+     * the fields which are matched by a range.
+     */
+    static class FilterShape {
+        private Set<String> equalityFields = new LinkedHashSet<>();
+        private Set<String> rangeFields = new LinkedHashSet<>();
+
+        void addPredicate(String field, Object value) {
+            if (!(value instanceof Document)) {
+                this.equalityFields.add(field);
+                return;
+            }
+            for (Map.Entry<String, Object> operator : ((Document) value).entrySet()) {
+                switch (operator.getKey()) {
+                    case "$eq":
+                    case "$in":
+                        this.equalityFields.add(field);
+                        break;
+                    case "$gt":
+                    case "$gte":
+                    case "$lt":
+                    case "$lte":
+                        this.rangeFields.add(field);
+                        break;
+                    case "$regex":
+                        if (String.valueOf(operator.getValue()).startsWith("^")) {
+                            this.rangeFields.add(field);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        FilterShape merge(FilterShape other) {
+            FilterShape merged = new FilterShape();
+            merged.equalityFields.addAll(this.equalityFields);
+            merged.equalityFields.addAll(other.equalityFields);
+            merged.rangeFields.addAll(this.rangeFields);
+            merged.rangeFields.addAll(other.rangeFields);
+            merged.rangeFields.removeAll(merged.equalityFields);
+            return merged;
+        }
+
+        boolean isServedBy(List<Document> indexKeys) {
+            for (Document indexKey : indexKeys) {
+                if (!indexKey.isEmpty()) {
+                    String leadingField = indexKey.keySet().iterator().next();
+                    if (this.equalityFields.contains(leadingField) || this.rangeFields.contains(leadingField)) {
+                        return true;
+                    }
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Suggests a compound index with the equality fields followed by the range fields.
+         */
+        Document suggestIndex() {
+            Document suggestedIndex = new Document();
+            this.equalityFields.forEach(field -> suggestedIndex.append(field, 1));
+            this.rangeFields.forEach(field -> suggestedIndex.append(field, 1));
+            return suggestedIndex;
+        }
+    }
+}
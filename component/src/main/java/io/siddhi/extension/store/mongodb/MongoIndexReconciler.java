@@ -0,0 +1,210 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.store.mongodb;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexModel;
+import io.siddhi.extension.store.mongodb.util.MongoTableUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class which reconciles the indices of an existing collection with the indices defined by the annotations
+ * 'PrimaryKey' and 'Index'. Missing indices are built in the background while the build progress is reported,
+ * redundant indices are optionally dropped only after the expected indices are ready, and indices superseded by
+ * an expected index of the same name are optionally dropped and rebuilt.
+ */
+public class MongoIndexReconciler {
+    private static final Log log = LogFactory.getLog(MongoIndexReconciler.class);
+    private static final String ID_INDEX_NAME = "_id_";
+    private static final long PROGRESS_REPORT_INTERVAL = 10000;
+
+    private String collectionName;
+    private List<IndexModel> expectedIndexModels;
+    private boolean dropRedundantIndices;
+    private ScheduledExecutorService scheduledExecutorService;
+
+    public MongoIndexReconciler(String collectionName, List<IndexModel> expectedIndexModels,
+                                boolean dropRedundantIndices, ScheduledExecutorService scheduledExecutorService) {
+        this.collectionName = collectionName;
+        this.expectedIndexModels = expectedIndexModels;
+        this.dropRedundantIndices = dropRedundantIndices;
+        this.scheduledExecutorService = scheduledExecutorService;
+    }
+
+    /**
+     * Method for reconciling the indices of the collection with the expected indices.
+     *
+     * @param database      the database which contains the collection.
+     * @param adminDatabase the admin database which is used to report the progress of the index builds.
+     * @throws MongoException if listing, creating or dropping the indices fails.
+     */
+    public void reconcile(MongoDatabase database, MongoDatabase adminDatabase) {
+        MongoCollection<Document> collection = database.getCollection(this.collectionName);
+        List<Document> existingIndices = collection.listIndexes().into(new ArrayList<>());
+
+        List<IndexModel> indicesToBuild = new ArrayList<>();
+        List<IndexModel> indicesToReplace = new ArrayList<>();
+        List<Document> conflictingIndices = new ArrayList<>();
+        List<Document> matchedIndices = new ArrayList<>();
+        for (IndexModel expectedIndexModel : this.expectedIndexModels) {
+            Document expectedIndex = MongoTableUtils.createIndexDocument(expectedIndexModel);
+            Document existingIndex = this.findExistingIndex(expectedIndex, existingIndices);
+            if (existingIndex == null) {
+                indicesToBuild.add(expectedIndexModel);
+            } else {
+                matchedIndices.add(existingIndex);
+                if (!MongoTableUtils.isSameIndex(expectedIndex, existingIndex)) {
+                    if (this.dropRedundantIndices && expectedIndex.get("key").equals(existingIndex.get("key"))) {
+                        // An index with the same key pattern and other options can not be built along with the
+                        // existing index, while dropping the existing index first leaves the queries unindexed.
+                        log.warn("Index '" + existingIndex.get("name") + "' of the collection '" +
+                                this.collectionName + "' has the key pattern of the expected index '" +
+                                expectedIndex + "' with other options. The index can not be rebuilt while " +
+                                "serving the queries, hence it is kept. Drop the index manually to rebuild it.");
+                    } else if (this.dropRedundantIndices) {
+                        conflictingIndices.add(existingIndex);
+                        indicesToReplace.add(expectedIndexModel);
+                    } else {
+                        log.warn("Index '" + existingIndex.get("name") + "' of the collection '" +
+                                this.collectionName + "' differs from the expected index '" + expectedIndex +
+                                "'. Enable 'index.drop.redundant' to rebuild the index.");
+                    }
+                }
+            }
+        }
+        List<Document> redundantIndices = new ArrayList<>();
+        for (Document existingIndex : existingIndices) {
+            if (!matchedIndices.contains(existingIndex) && !ID_INDEX_NAME.equals(existingIndex.get("name"))) {
+                redundantIndices.add(existingIndex);
+            }
+        }
+
+        if (!indicesToReplace.isEmpty()) {
+            this.replaceIndices(collection, indicesToReplace, conflictingIndices, database.getName(), adminDatabase);
+        }
+        if (!indicesToBuild.isEmpty()) {
+            this.buildIndices(collection, indicesToBuild, database.getName(), adminDatabase);
+        }
+        // Redundant indices are dropped only after the expected indices are ready to serve the queries.
+        for (Document redundantIndex : redundantIndices) {
+            if (this.dropRedundantIndices) {
+                log.info("Dropping redundant index '" + redundantIndex.get("name") + "' of the collection '" +
+                        this.collectionName + "'.");
+                collection.dropIndex(redundantIndex.getString("name"));
+            } else {
+                log.warn("Index '" + redundantIndex.get("name") + "' of the collection '" + this.collectionName +
+                        "' is not defined by the annotations 'PrimaryKey' and 'Index'.");
+            }
+        }
+    }
+
+    /**
+     * Method for finding the existing index which has either the same name or the same key pattern as the
+     * expected index.
+     *
+     * @param expectedIndex   the document describing the expected index.
+     * @param existingIndices the documents describing the existing indices.
+     * @return the matching existing index or null if no index matches.
+     */
+    private Document findExistingIndex(Document expectedIndex, List<Document> existingIndices) {
+        for (Document existingIndex : existingIndices) {
+            if (MongoTableUtils.isSameIndex(expectedIndex, existingIndex)) {
+                return existingIndex;
+            }
+        }
+        for (Document existingIndex : existingIndices) {
+            if (expectedIndex.get("name").equals(existingIndex.get("name")) ||
+                    expectedIndex.get("key").equals(existingIndex.get("key"))) {
+                return existingIndex;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Method for replacing the existing indices which have the names of the expected indices with other key
+     * patterns. MongoDB rejects a second index with the same key pattern and options under another name, hence the
+     * existing index is dropped first and the queries are unindexed until the replacement is rebuilt.
+     */
+    private void replaceIndices(MongoCollection<Document> collection, List<IndexModel> indexModels,
+                                List<Document> conflictingIndices, String databaseName,
+                                MongoDatabase adminDatabase) {
+        for (Document conflictingIndex : conflictingIndices) {
+            log.info("Dropping index '" + conflictingIndex.get("name") + "' of the collection '" +
+                    this.collectionName + "', which is superseded by the index defined by the annotations.");
+            collection.dropIndex(conflictingIndex.getString("name"));
+        }
+        this.buildIndices(collection, indexModels, databaseName, adminDatabase);
+    }
+
+    /**
+     * Method for building the indices in the background while periodically reporting the build progress.
+     */
+    private void buildIndices(MongoCollection<Document> collection, List<IndexModel> indexModels,
+                              String databaseName, MongoDatabase adminDatabase) {
+        indexModels.forEach(indexModel -> indexModel.getOptions().background(true));
+        log.info("Building " + indexModels.size() + " index(es) on the collection '" + this.collectionName +
+                "' in the background.");
+        ScheduledFuture<?> progressReporter = this.scheduledExecutorService.scheduleWithFixedDelay(
+                () -> this.reportProgress(databaseName, adminDatabase),
+                PROGRESS_REPORT_INTERVAL, PROGRESS_REPORT_INTERVAL, TimeUnit.MILLISECONDS);
+        try {
+            collection.createIndexes(indexModels);
+        } finally {
+            progressReporter.cancel(false);
+        }
+        log.info("Index(es) of the collection '" + this.collectionName + "' are ready.");
+    }
+
+    /**
+     * Method for logging the progress of the index builds which are in progress on the collection.
+     */
+    private void reportProgress(String databaseName, MongoDatabase adminDatabase) {
+        try {
+            Document currentOperations = adminDatabase.runCommand(new Document("currentOp", 1)
+                    .append("command.createIndexes", this.collectionName));
+            List<?> operations = (List<?>) currentOperations.get("inprog");
+            if (operations == null) {
+                return;
+            }
+            for (Object operation : operations) {
+                Document indexBuild = (Document) operation;
+                String namespace = indexBuild.getString("ns");
+                if (indexBuild.get("msg") != null && (namespace == null || namespace.startsWith(databaseName))) {
+                    log.info("Index build on the collection '" + this.collectionName + "' : " +
+                            indexBuild.get("msg"));
+                }
+            }
+        } catch (MongoException | ClassCastException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Retrieving the index build progress of the collection '" + this.collectionName +
+                        "' failed due to " + e.getMessage(), e);
+            }
+        }
+    }
+}
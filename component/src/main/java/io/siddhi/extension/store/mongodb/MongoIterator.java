@@ -20,27 +20,71 @@ package io.siddhi.extension.store.mongodb;
 import com.mongodb.client.FindIterable;
 import com.mongodb.client.MongoCursor;
 import io.siddhi.core.table.record.RecordIterator;
+import io.siddhi.extension.store.mongodb.condition.RowPredicate;
+import io.siddhi.extension.store.mongodb.util.MongoTableConstants;
 import org.bson.Document;
 
-import java.io.IOException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.Deque;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
 
 /**
  * A class representing a RecordIterator which is responsible for processing MongoDB Event Table find() operations in a
  * streaming fashion.
  */
 public class MongoIterator implements RecordIterator<Object[]> {
-    private MongoCursor documents;
+    private Iterator<Document> documents;
     private List<String> attributeNames;
+    private Set<String> dateFields;
+    private List<String> primaryKeyFields;
+    private MongoBucketPattern bucketPattern;
+    private RowPredicate predicate;
+    private Map<String, Object> parameters;
+    private Deque<Object[]> unwoundRecords = new ArrayDeque<>();
 
     private boolean preFetched;
     private Object[] nextDocument;
 
-    public MongoIterator(FindIterable documents, List<String> attributeNames) {
+    public MongoIterator(FindIterable<Document> documents, List<String> attributeNames) {
+        this(documents, attributeNames, Collections.emptySet(), null);
+    }
+
+    public MongoIterator(FindIterable<Document> documents, List<String> attributeNames, Set<String> dateFields,
+                         List<String> primaryKeyFields) {
+        this.documents = documents.iterator();
+        this.attributeNames = attributeNames;
+        this.dateFields = dateFields;
+        this.primaryKeyFields = primaryKeyFields;
+    }
+
+    public MongoIterator(List<? extends FindIterable<Document>> partitions, List<String> attributeNames,
+                         Set<String> dateFields, List<String> primaryKeyFields) {
+        this.documents = new PartitionsIterator(partitions.iterator());
+        this.attributeNames = attributeNames;
+        this.dateFields = dateFields;
+        this.primaryKeyFields = primaryKeyFields;
+    }
+
+    public MongoIterator(List<Document> documents, List<String> attributeNames, Set<String> dateFields) {
         this.documents = documents.iterator();
         this.attributeNames = attributeNames;
+        this.dateFields = dateFields;
+    }
+
+    public MongoIterator(FindIterable<Document> documents, List<String> attributeNames, Set<String> dateFields,
+                         MongoBucketPattern bucketPattern, RowPredicate predicate, Map<String, Object> parameters) {
+        this(documents, attributeNames, dateFields, null);
+        this.bucketPattern = bucketPattern;
+        this.predicate = predicate;
+        this.parameters = parameters;
     }
 
     @Override
@@ -60,16 +104,39 @@ public class MongoIterator implements RecordIterator<Object[]> {
             this.nextDocument = null;
             return result;
         }
+        if (this.bucketPattern != null) {
+            return this.nextUnwoundRecord();
+        }
         if (this.documents.hasNext()) {
-            return this.extractRecord((Document) this.documents.next());
+            return this.extractRecord(this.documents.next());
         } else {
             return new Object[0];
         }
     }
 
+    /**
+     * Method for returning the next record of the bucket documents, which are unwound into the records of their
+     * events. The buckets are matched by their keys and windows only, hence the records are filtered with the
+     * predicate of the condition.
+     *
+     * @return the next record or an empty array if no record is left.
+     */
+    private Object[] nextUnwoundRecord() {
+        while (this.unwoundRecords.isEmpty() && this.documents.hasNext()) {
+            for (Document event : this.bucketPattern.unwind(this.documents.next())) {
+                Object[] record = this.extractRecord(event);
+                if (this.predicate == null || this.predicate.test(record, this.parameters)) {
+                    this.unwoundRecords.add(record);
+                }
+            }
+        }
+        return this.unwoundRecords.isEmpty() ? new Object[0] : this.unwoundRecords.poll();
+    }
+
     /**
      * Method which is used for extracting record values (in the form of an Object array) from a
-     * MongoDB {@link Document}, according to the table's field type order.
+     * MongoDB {@link Document}, according to the table's field type order. The BSON Dates of the date fields are
+     * returned as epoch times in milliseconds, and the values of a primary key stored as '_id' are taken from '_id'.
      *
      * @param document the {@link Document} from which the values should be retrieved.
      * @return an array of extracted values, all cast to {@link Object} type for portability.
@@ -77,11 +144,14 @@ public class MongoIterator implements RecordIterator<Object[]> {
     private Object[] extractRecord(Document document) {
         List<Object> result = new ArrayList<>();
         for (String attributeName : this.attributeNames) {
-            Object attributeValue = document.get(attributeName);
+            Object attributeValue = this.primaryKeyFields != null && this.primaryKeyFields.contains(attributeName) ?
+                    this.extractPrimaryKeyValue(document, attributeName) : document.get(attributeName);
             if (attributeValue instanceof Document) {
                 HashMap<Object, Object> attributAsAMap = new HashMap<>();
                 ((Document) attributeValue).forEach(attributAsAMap::put);
                 result.add(attributAsAMap);
+            } else if (attributeValue instanceof Date && this.dateFields.contains(attributeName)) {
+                result.add(((Date) attributeValue).getTime());
             } else {
                 result.add(attributeValue);
             }
@@ -89,8 +159,59 @@ public class MongoIterator implements RecordIterator<Object[]> {
         return result.toArray();
     }
 
+    private Object extractPrimaryKeyValue(Document document, String attributeName) {
+        Object id = document.get(MongoTableConstants.MONGO_ID);
+        if (this.primaryKeyFields.size() == 1) {
+            return id;
+        }
+        return id instanceof Document ? ((Document) id).get(attributeName) : null;
+    }
+
+    /**
+     * Method for closing the cursor which is read by the iterator, so that an iterator which is not read to the end
+     * does not leave its cursor open on the server until it times out.
+     */
     @Override
-    public void close() throws IOException {
+    public void close() {
+        if (this.documents instanceof PartitionsIterator) {
+            closeCursor(((PartitionsIterator) this.documents).documents);
+        } else {
+            closeCursor(this.documents);
+        }
+    }
+
+    private static void closeCursor(Iterator<Document> documents) {
+        if (documents instanceof MongoCursor) {
+            ((MongoCursor<Document>) documents).close();
+        }
+    }
 
+    /**
+     * Iterator over the documents of several partitions in turn, which opens the cursor of a partition only once
+     * the documents of the previous partitions are consumed.
+     */
+    private static class PartitionsIterator implements Iterator<Document> {
+        private Iterator<? extends FindIterable<Document>> partitions;
+        private Iterator<Document> documents = Collections.emptyIterator();
+
+        private PartitionsIterator(Iterator<? extends FindIterable<Document>> partitions) {
+            this.partitions = partitions;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!this.documents.hasNext() && this.partitions.hasNext()) {
+                this.documents = this.partitions.next().iterator();
+            }
+            return this.documents.hasNext();
+        }
+
+        @Override
+        public Document next() {
+            if (!this.hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return this.documents.next();
+        }
     }
 }
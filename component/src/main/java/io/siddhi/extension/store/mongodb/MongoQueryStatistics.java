@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.store.mongodb;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.IndexOptions;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Class which collects runtime statistics for each condition shape executed against the MongoDB Event Table.
+ * The call rate and the latency are measured for every execution, while the number of documents examined and
+ * returned are sampled by explaining the filter of every n-th execution. When a frequently executed condition
+ * examines too many documents for each returned document, a supporting index is either proposed or created in
+ * the background.
+ */
+public class MongoQueryStatistics {
+    private static final Log log = LogFactory.getLog(MongoQueryStatistics.class);
+    public static final String AUTO_INDEX_NONE = "none";
+    public static final String AUTO_INDEX_PROPOSE = "propose";
+    public static final String AUTO_INDEX_CREATE = "create";
+
+    private String collectionName;
+    private long sampleInterval;
+    private long minCalls;
+    private long scanRatio;
+    private String autoIndexMode;
+    private ExecutorService executorService;
+    private Map<String, ConditionStatistics> conditionStatistics;
+    private Set<Document> handledIndices;
+
+    public MongoQueryStatistics(String collectionName, long sampleInterval, long minCalls, long scanRatio,
+                                String autoIndexMode, ExecutorService executorService) {
+        this.collectionName = collectionName;
+        this.sampleInterval = sampleInterval;
+        this.minCalls = minCalls;
+        this.scanRatio = scanRatio;
+        this.autoIndexMode = autoIndexMode;
+        this.executorService = executorService;
+        this.conditionStatistics = new ConcurrentHashMap<>();
+        this.handledIndices = ConcurrentHashMap.newKeySet();
+    }
+
+    /**
+     * Method for recording the executions of a condition.
+     *
+     * @param compiledCondition the compiled condition which was executed.
+     * @param filter            a resolved filter of the condition, explained when the execution is sampled.
+     * @param executions        the number of filters of the condition executed in the operation.
+     * @param latency           the time in nanoseconds taken by the operation.
+     * @param database          the database which contains the collection.
+     */
+    public void record(MongoCompiledCondition compiledCondition, Document filter, int executions, long latency,
+                       MongoDatabase database) {
+        if (executions <= 0 || filter == null || filter.isEmpty()) {
+            return;
+        }
+        ConditionStatistics statistics = this.conditionStatistics.computeIfAbsent(
+                compiledCondition.getCompiledQuery(), ConditionStatistics::new);
+        long previousCalls = statistics.calls.getAndAdd(executions);
+        statistics.latency.addAndGet(latency);
+        if (previousCalls / this.sampleInterval != (previousCalls + executions) / this.sampleInterval &&
+                statistics.sampling.compareAndSet(false, true)) {
+            try {
+                this.executorService.execute(() -> {
+                    try {
+                        this.sample(statistics, filter, database);
+                    } finally {
+                        statistics.sampling.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                statistics.sampling.set(false);
+            }
+        }
+    }
+
+    /**
+     * Method for returning the statistics of all the condition shapes executed against the table.
+     *
+     * @return List of Documents describing the statistics of each condition shape.
+     */
+    public List<Document> getStatistics() {
+        List<Document> statistics = new ArrayList<>();
+        this.conditionStatistics.values().forEach(conditionStatistics ->
+                statistics.add(conditionStatistics.toDocument()));
+        return statistics;
+    }
+
+    private void sample(ConditionStatistics statistics, Document filter, MongoDatabase database) {
+        try {
+            Document explainResult = database.runCommand(new Document()
+                    .append("explain", new Document("find", this.collectionName).append("filter", filter))
+                    .append("verbosity", "executionStats"));
+            Document executionStats = (Document) explainResult.get("executionStats");
+            if (executionStats == null || executionStats.get("totalDocsExamined") == null ||
+                    executionStats.get("nReturned") == null) {
+                if (log.isDebugEnabled()) {
+                    log.debug("Sampling the execution statistics of the condition '" + statistics.condition +
+                            "' on the collection '" + this.collectionName + "' returned no execution statistics.");
+                }
+                return;
+            }
+            statistics.docsExamined.addAndGet(((Number) executionStats.get("totalDocsExamined")).longValue());
+            statistics.docsReturned.addAndGet(((Number) executionStats.get("nReturned")).longValue());
+            statistics.samples.incrementAndGet();
+            if (!AUTO_INDEX_NONE.equals(this.autoIndexMode) && statistics.calls.get() >= this.minCalls &&
+                    statistics.getScanRatio() >= this.scanRatio) {
+                this.suggestIndices(statistics, filter, database.getCollection(this.collectionName));
+            }
+        } catch (MongoException | ClassCastException e) {
+            if (log.isDebugEnabled()) {
+                log.debug("Sampling the execution statistics of the condition '" + statistics.condition +
+                        "' on the collection '" + this.collectionName + "' failed due to " + e.getMessage(), e);
+            }
+        }
+    }
+
+    private void suggestIndices(ConditionStatistics statistics, Document filter,
+                                MongoCollection<Document> collection) {
+        List<Document> indexKeys = new ArrayList<>();
+        collection.listIndexes().forEach((Consumer<Document>) index -> indexKeys.add((Document) index.get("key")));
+        for (MongoIndexAdvisor.FilterShape filterShape : MongoIndexAdvisor.collectFilterShapes(filter)) {
+            Document suggestedIndex = filterShape.suggestIndex();
+            if (filterShape.isServedBy(indexKeys) || suggestedIndex.isEmpty() ||
+                    !this.handledIndices.add(suggestedIndex)) {
+                continue;
+            }
+            if (AUTO_INDEX_CREATE.equals(this.autoIndexMode)) {
+                log.info("Condition '" + statistics.condition + "' on the collection '" + this.collectionName +
+                        "' examined " + statistics.getScanRatio() + " documents per returned document. Creating " +
+                        "the index '" + suggestedIndex.toJson() + "' in the background.");
+                collection.createIndex(suggestedIndex, new IndexOptions().background(true));
+                indexKeys.add(suggestedIndex);
+            } else {
+                log.warn("Condition '" + statistics.condition + "' on the collection '" + this.collectionName +
+                        "' examined " + statistics.getScanRatio() + " documents per returned document. Consider " +
+                        "defining the index '" + suggestedIndex.toJson() + "' using the annotation 'Index'.");
+            }
+        }
+    }
+
+    /**
+     * Class which holds the statistics of a single condition shape.
+     */
+    private static class ConditionStatistics {
+        private final String condition;
+        private final long firstExecution = System.currentTimeMillis();
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong latency = new AtomicLong();
+        private final AtomicLong docsExamined = new AtomicLong();
+        private final AtomicLong docsReturned = new AtomicLong();
+        private final AtomicLong samples = new AtomicLong();
+        private final AtomicBoolean sampling = new AtomicBoolean();
+
+        ConditionStatistics(String condition) {
+            this.condition = condition;
+        }
+
+        long getScanRatio() {
+            return this.docsExamined.get() / Math.max(this.docsReturned.get(), 1);
+        }
+
+        Document toDocument() {
+            long calls = this.calls.get();
+            long elapsedTime = Math.max(System.currentTimeMillis() - this.firstExecution, 1);
+            return new Document()
+                    .append("condition", this.condition)
+                    .append("calls", calls)
+                    .append("callsPerSecond", calls * 1000.0 / elapsedTime)
+                    .append("averageLatencyMillis", calls == 0 ? 0.0 : this.latency.get() / 1000000.0 / calls)
+                    .append("samples", this.samples.get())
+                    .append("docsExamined", this.docsExamined.get())
+                    .append("docsReturned", this.docsReturned.get());
+        }
+    }
+}
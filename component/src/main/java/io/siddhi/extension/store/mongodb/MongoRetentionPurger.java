@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.store.mongodb;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Class which purges the documents of the collection which are older than the retention period in the background.
+ * The expired documents are deleted in bounded chunks following the order of the index on the retention field, so
+ * that no single delete holds the collection for long. The chunk size follows the observed delete latency, and the
+ * purge is paused while the replication lag of the secondaries exceeds the configured limit.
+ */
+public class MongoRetentionPurger {
+    private static final Log log = LogFactory.getLog(MongoRetentionPurger.class);
+    private static final int MIN_CHUNK_SIZE = 10;
+    private static final int NO_REPLICATION_ERROR_CODE = 76;
+
+    private String collectionName;
+    private String retentionField;
+    private long retentionPeriod;
+    private boolean dateCutoff;
+    private long purgeInterval;
+    private int maxChunkSize;
+    private long targetChunkLatency;
+    private long maxReplicationLag;
+    private ScheduledExecutorService scheduledExecutorService;
+    private volatile int chunkSize;
+    private volatile boolean replicationLagSupported = true;
+    private volatile long replicationLag;
+    private volatile Object lastCutoff;
+    private volatile ScheduledFuture<?> scheduledPurge;
+    private final AtomicLong purgedDocuments = new AtomicLong();
+    private final AtomicLong chunks = new AtomicLong();
+    private final AtomicLong chunkLatency = new AtomicLong();
+    private final AtomicLong throttles = new AtomicLong();
+
+    public MongoRetentionPurger(String collectionName, String retentionField, long retentionPeriod,
+                                boolean dateCutoff, long purgeInterval, int maxChunkSize, long targetChunkLatency,
+                                long maxReplicationLag, ScheduledExecutorService scheduledExecutorService) {
+        this.collectionName = collectionName;
+        this.retentionField = retentionField;
+        this.retentionPeriod = retentionPeriod;
+        this.dateCutoff = dateCutoff;
+        this.purgeInterval = purgeInterval;
+        this.maxChunkSize = maxChunkSize;
+        this.targetChunkLatency = targetChunkLatency;
+        this.maxReplicationLag = maxReplicationLag;
+        this.scheduledExecutorService = scheduledExecutorService;
+        this.chunkSize = Math.max(MIN_CHUNK_SIZE, maxChunkSize / 10);
+    }
+
+    /**
+     * Method for starting the periodic purge of the collection. A purge which is already scheduled is kept.
+     *
+     * @param database      the supplier of the database which contains the collection.
+     * @param adminDatabase the supplier of the admin database which is used to observe the replication lag.
+     */
+    public synchronized void start(Supplier<MongoDatabase> database, Supplier<MongoDatabase> adminDatabase) {
+        if (this.scheduledPurge == null) {
+            this.schedule(database, adminDatabase, this.purgeInterval);
+        }
+    }
+
+    /**
+     * Method for stopping the periodic purge of the collection. A chunk which is being deleted is completed.
+     */
+    public synchronized void stop() {
+        if (this.scheduledPurge != null) {
+            this.scheduledPurge.cancel(false);
+            this.scheduledPurge = null;
+        }
+    }
+
+    private synchronized void schedule(Supplier<MongoDatabase> database, Supplier<MongoDatabase> adminDatabase,
+                                       long delay) {
+        try {
+            this.scheduledPurge = this.scheduledExecutorService.schedule(
+                    () -> this.purgeChunk(database, adminDatabase), delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            this.scheduledPurge = null;
+        }
+    }
+
+    /**
+     * Method for deleting a single chunk of expired documents and scheduling the next chunk. The next chunk
+     * follows after a pause as long as the delete itself while expired documents remain, so that the purge takes
+     * at most half of the time of the collection, and after the purge interval otherwise.
+     */
+    private void purgeChunk(Supplier<MongoDatabase> database, Supplier<MongoDatabase> adminDatabase) {
+        synchronized (this) {
+            if (this.scheduledPurge == null) {
+                return;
+            }
+        }
+        long nextDelay = this.purgeInterval;
+        try {
+            MongoCollection<Document> collection = database.get().getCollection(this.collectionName);
+            if (this.isReplicationLagging(adminDatabase.get())) {
+                this.throttles.incrementAndGet();
+            } else {
+                Object cutoff = this.createCutoff();
+                this.lastCutoff = cutoff;
+                int currentChunkSize = this.chunkSize;
+                long startTime = System.nanoTime();
+                List<Object> ids = collection
+                        .find(new Document(this.retentionField, new Document("$lt", cutoff)))
+                        .sort(Sorts.ascending(this.retentionField))
+                        .projection(Projections.include("_id"))
+                        .limit(currentChunkSize)
+                        .map(document -> document.get("_id"))
+                        .into(new ArrayList<>());
+                if (!ids.isEmpty()) {
+                    long deletedCount = collection.deleteMany(new Document("_id", new Document("$in", ids)))
+                            .getDeletedCount();
+                    long latency = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+                    this.purgedDocuments.addAndGet(deletedCount);
+                    this.chunks.incrementAndGet();
+                    this.chunkLatency.addAndGet(latency);
+                    this.adaptChunkSize(currentChunkSize, latency);
+                    if (ids.size() == currentChunkSize) {
+                        nextDelay = Math.max(latency, 1);
+                    }
+                }
+            }
+        } catch (MongoException | IllegalStateException e) {
+            // The client is closed while the table is being destroyed, which stops the purge as well.
+            log.warn("Purging the expired documents of the collection '" + this.collectionName + "' failed due to " +
+                    e.getMessage() + ". Retrying after " + this.purgeInterval + " ms.");
+        }
+        synchronized (this) {
+            if (this.scheduledPurge != null) {
+                this.schedule(database, adminDatabase, nextDelay);
+            }
+        }
+    }
+
+    /**
+     * Method for creating the value of the retention field before which the documents are expired.
+     *
+     * @return the epoch time in milliseconds of the cutoff, or the BSON Date if the field is stored as a date.
+     */
+    private Object createCutoff() {
+        long cutoff = System.currentTimeMillis() - this.retentionPeriod;
+        return this.dateCutoff ? new Date(cutoff) : cutoff;
+    }
+
+    /**
+     * Method for adapting the chunk size to the latency of the last delete. The chunk shrinks by half when the
+     * delete is slower than the target and grows by half while it is faster than half of the target.
+     */
+    private void adaptChunkSize(int currentChunkSize, long latency) {
+        if (latency > this.targetChunkLatency) {
+            this.chunkSize = Math.max(MIN_CHUNK_SIZE, currentChunkSize / 2);
+        } else if (latency < this.targetChunkLatency / 2) {
+            this.chunkSize = Math.min(this.maxChunkSize, currentChunkSize + Math.max(1, currentChunkSize / 2));
+        }
+    }
+
+    /**
+     * Method for checking whether the replication lag of the slowest secondary exceeds the configured limit.
+     * The lag is no longer observed once the server reports that it is not a replica set member, while other
+     * failures to read the status of the replica set only skip the check for the current chunk.
+     */
+    private boolean isReplicationLagging(MongoDatabase adminDatabase) {
+        if (!this.replicationLagSupported || this.maxReplicationLag <= 0) {
+            return false;
+        }
+        try {
+            Document status = adminDatabase.runCommand(new Document("replSetGetStatus", 1));
+            List<?> members = (List<?>) status.get("members");
+            Date primaryOptime = null;
+            Date slowestOptime = null;
+            if (members != null) {
+                for (Object member : members) {
+                    Document memberStatus = (Document) member;
+                    Date optime = memberStatus.getDate("optimeDate");
+                    if ("PRIMARY".equals(memberStatus.getString("stateStr"))) {
+                        primaryOptime = optime;
+                    } else if ("SECONDARY".equals(memberStatus.getString("stateStr")) && optime != null &&
+                            (slowestOptime == null || optime.before(slowestOptime))) {
+                        slowestOptime = optime;
+                    }
+                }
+            }
+            this.replicationLag = primaryOptime == null || slowestOptime == null ? 0 :
+                    primaryOptime.getTime() - slowestOptime.getTime();
+            return this.replicationLag > this.maxReplicationLag;
+        } catch (MongoException e) {
+            if (e.getCode() == NO_REPLICATION_ERROR_CODE) {
+                this.replicationLagSupported = false;
+            } else {
+                log.warn("Observing the replication lag for purging the collection '" + this.collectionName +
+                        "' failed due to " + e.getMessage() + ". Purging this chunk without observing the " +
+                        "replication lag.");
+            }
+            return false;
+        } catch (ClassCastException e) {
+            log.warn("Observing the replication lag for purging the collection '" + this.collectionName +
+                    "' failed due to " + e.getMessage() + ". Purging this chunk without observing the " +
+                    "replication lag.");
+            return false;
+        }
+    }
+
+    /**
+     * Method for returning the progress of the purge.
+     *
+     * @return Document describing the purged documents and chunks, the current chunk size, the average delete
+     * latency and the observed replication lag.
+     */
+    public Document getStatistics() {
+        long chunks = this.chunks.get();
+        return new Document()
+                .append("retentionField", this.retentionField)
+                .append("cutoff", this.lastCutoff)
+                .append("purgedDocuments", this.purgedDocuments.get())
+                .append("chunks", chunks)
+                .append("chunkSize", this.chunkSize)
+                .append("averageChunkLatencyMillis", chunks == 0 ? 0.0 : (double) this.chunkLatency.get() / chunks)
+                .append("replicationLagMillis", this.replicationLag)
+                .append("throttles", this.throttles.get());
+    }
+}
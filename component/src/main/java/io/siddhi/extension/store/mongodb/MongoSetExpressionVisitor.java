@@ -18,53 +18,77 @@
 package io.siddhi.extension.store.mongodb;
 
 import io.siddhi.core.table.record.BaseExpressionVisitor;
+import io.siddhi.extension.store.mongodb.condition.Operand;
 import io.siddhi.extension.store.mongodb.exception.MongoTableException;
-import io.siddhi.extension.store.mongodb.util.Constant;
+import io.siddhi.extension.store.mongodb.util.MongoTableConstants;
+import io.siddhi.extension.store.mongodb.util.MongoTableUtils;
 import io.siddhi.query.api.definition.Attribute;
 import io.siddhi.query.api.expression.condition.Compare;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
 import java.util.Stack;
 
 /**
- * Class which is used by the Siddhi runtime for instructions on converting the SiddhiQL condition to the condition
- * format understood by the MongoDB.
+ * Class which is used by the Siddhi runtime for instructions on converting the value of a SiddhiQL set attribute
+ * to the update operator understood by the MongoDB. Values computed from stream variables and constants are
+ * applied with '$set', while arithmetic on the attribute being set is applied with '$inc' or '$mul', and the
+ * functions 'maximum' and 'minimum' on the attribute being set are applied with '$max' or '$min'.
  */
 public class MongoSetExpressionVisitor extends BaseExpressionVisitor {
-    private Stack<String> conditionOperands;
-    private Map<String, Object> placeholders;
+    private Stack<Object> setOperands;
+    private Stack<Integer> functionOperandIndices;
 
     private int streamVarCount;
-    private int constantCount;
 
     public MongoSetExpressionVisitor() {
         this.streamVarCount = 0;
-        this.constantCount = 0;
-        this.conditionOperands = new Stack<>();
-        this.placeholders = new HashMap<>();
-    }
-
-    public String getCompiledCondition() {
-        String compiledCondition = this.conditionOperands.pop();
-        for (Map.Entry<String, Object> entry : this.placeholders.entrySet()) {
-            if (entry.getValue() instanceof Constant) {
-                Constant constant = (Constant) entry.getValue();
-                if (constant.getType().equals(Attribute.Type.STRING)) {
-                    compiledCondition = compiledCondition.replaceAll(entry.getKey(),
-                            "'" + constant.getValue().toString() + "'");
-                } else {
-                    compiledCondition = compiledCondition.replaceAll(entry.getKey(),
-                            constant.getValue().toString());
-                }
-                this.placeholders.remove(entry.getKey());
+        this.setOperands = new Stack<>();
+        this.functionOperandIndices = new Stack<>();
+    }
+
+    public MongoCompiledSetAttribute getCompiledSetAttribute() {
+        Object operand = this.setOperands.pop();
+        if (operand instanceof MongoCompiledSetAttribute) {
+            return (MongoCompiledSetAttribute) operand;
+        } else if (isValue(operand)) {
+            return new MongoCompiledSetAttribute(MongoTableConstants.MONGO_SET, null, (Operand) operand,
+                    getValueType((Operand) operand), false);
+        }
+        throw new MongoTableException("MongoDB Event Table found operand '" + operand + "' in the SET clause. " +
+                "The Mongo Event table only supports stream variables, constants, MATH operations on them and " +
+                "arithmetic or 'maximum'/'minimum' functions between the table attribute being set and a value. " +
+                "Please check your query and try again.");
+    }
+
+    /**
+     * Method for returning the type of an operand which refers to stream variables and constants only, following
+     * the type promotion of the Siddhi MATH operations.
+     *
+     * @param operand the value operand.
+     * @return the type of the operand.
+     */
+    private static Attribute.Type getValueType(Operand operand) {
+        if (operand instanceof Operand.ParameterOperand) {
+            return ((Operand.ParameterOperand) operand).getAttribute().getType();
+        } else if (operand instanceof Operand.ConstantOperand) {
+            return ((Operand.ConstantOperand) operand).getType();
+        }
+        Operand.MathOperand mathOperand = (Operand.MathOperand) operand;
+        Attribute.Type leftType = getValueType(mathOperand.getLeftOperand());
+        Attribute.Type rightType = getValueType(mathOperand.getRightOperand());
+        for (Attribute.Type type : new Attribute.Type[]{Attribute.Type.DOUBLE, Attribute.Type.FLOAT,
+                Attribute.Type.LONG}) {
+            if (type.equals(leftType) || type.equals(rightType)) {
+                return type;
             }
         }
-        return compiledCondition;
+        return Attribute.Type.INT;
     }
 
-    public Map<String, Object> getPlaceholders() {
-        return placeholders;
+    private static boolean isIntegral(Attribute.Type type) {
+        return Attribute.Type.INT.equals(type) || Attribute.Type.LONG.equals(type);
     }
 
     @Override
@@ -73,7 +97,8 @@ public class MongoSetExpressionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void endVisitAnd() {
-        throw new MongoTableException("MongoDB Event Table does not support SET function.");
+        throw new MongoTableException("MongoDB Event Table does not support conditions in the SET clause. " +
+                "Please check your query and try again.");
     }
 
     @Override
@@ -98,7 +123,8 @@ public class MongoSetExpressionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void endVisitOr() {
-        throw new MongoTableException("MongoDB Event Table does not support SET function.");
+        throw new MongoTableException("MongoDB Event Table does not support conditions in the SET clause. " +
+                "Please check your query and try again.");
     }
 
     @Override
@@ -123,7 +149,8 @@ public class MongoSetExpressionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void endVisitNot() {
-        throw new MongoTableException("MongoDB Event Table does not support SET function.");
+        throw new MongoTableException("MongoDB Event Table does not support conditions in the SET clause. " +
+                "Please check your query and try again.");
     }
 
     @Override
@@ -132,7 +159,8 @@ public class MongoSetExpressionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void endVisitCompare(Compare.Operator operator) {
-        throw new MongoTableException("MongoDB Event Table does not support SET function.");
+        throw new MongoTableException("MongoDB Event Table does not support conditions in the SET clause. " +
+                "Please check your query and try again.");
     }
 
     @Override
@@ -160,12 +188,14 @@ public class MongoSetExpressionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void endVisitIsNull(String streamId) {
-        throw new MongoTableException("MongoDB Event Table does not support SET function.");
+        throw new MongoTableException("MongoDB Event Table does not support conditions in the SET clause. " +
+                "Please check your query and try again.");
     }
 
     @Override
     public void beginVisitIn(String storeId) {
-        throw new MongoTableException("MongoDB Event Table does not support SET function.");
+        throw new MongoTableException("MongoDB Event Table does not support conditions in the SET clause. " +
+                "Please check your query and try again.");
     }
 
     @Override
@@ -174,11 +204,58 @@ public class MongoSetExpressionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void beginVisitMath(MathOperator mathOperator) {
-        throw new MongoTableException("MongoDB Event Table does not support SET function.");
     }
 
     @Override
     public void endVisitMath(MathOperator mathOperator) {
+        String mathOperatorName;
+        switch (mathOperator) {
+            case ADD:
+                mathOperatorName = MongoTableConstants.MONGO_ADD;
+                break;
+            case SUBTRACT:
+                mathOperatorName = MongoTableConstants.MONGO_SUBTRACT;
+                break;
+            case MULTIPLY:
+                mathOperatorName = MongoTableConstants.MONGO_MULTIPLY;
+                break;
+            case DIVIDE:
+                mathOperatorName = MongoTableConstants.MONGO_DIVIDE;
+                break;
+            case MOD:
+                mathOperatorName = MongoTableConstants.MONGO_MOD;
+                break;
+            default:
+                throw new MongoTableException("MongoDB Event Table found unknown operator '" + mathOperator +
+                        "' for MATH operation. Please check your query and try again.");
+        }
+        Object rightOperand = this.setOperands.pop();
+        Object leftOperand = this.setOperands.pop();
+        if (isValue(leftOperand) && isValue(rightOperand)) {
+            // Values are computed before the update is sent, hence the operation is evaluated in the JVM.
+            this.setOperands.push(new Operand.MathOperand(mathOperatorName, (Operand) leftOperand,
+                    (Operand) rightOperand, isIntegral(getValueType((Operand) leftOperand)) &&
+                    isIntegral(getValueType((Operand) rightOperand))));
+        } else if (leftOperand instanceof Operand.AttributeOperand && isValue(rightOperand) &&
+                mathOperator != MathOperator.DIVIDE && mathOperator != MathOperator.MOD) {
+            // A subtraction is applied as the increment by the negated value.
+            this.setOperands.push(new MongoCompiledSetAttribute(mathOperator == MathOperator.MULTIPLY ?
+                    MongoTableConstants.MONGO_MUL : MongoTableConstants.MONGO_INC,
+                    ((Operand.AttributeOperand) leftOperand).getName(), (Operand) rightOperand,
+                    getValueType((Operand) rightOperand), mathOperator == MathOperator.SUBTRACT));
+        } else if (rightOperand instanceof Operand.AttributeOperand && isValue(leftOperand) &&
+                (mathOperator == MathOperator.ADD || mathOperator == MathOperator.MULTIPLY)) {
+            this.setOperands.push(new MongoCompiledSetAttribute(mathOperator == MathOperator.MULTIPLY ?
+                    MongoTableConstants.MONGO_MUL : MongoTableConstants.MONGO_INC,
+                    ((Operand.AttributeOperand) rightOperand).getName(), (Operand) leftOperand,
+                    getValueType((Operand) leftOperand), false));
+        } else {
+            throw new MongoTableException("MongoDB Event Table found operands '" + leftOperand + "' and '" +
+                    rightOperand + "' for MATH operation in the SET clause. The Mongo Event table only supports " +
+                    "MATH operations between stream variables and constants, and the ADD, SUBTRACT and MULTIPLY " +
+                    "operations of the table attribute being set with a stream variable/ constant. Please check " +
+                    "your query and try again.");
+        }
     }
 
     @Override
@@ -199,12 +276,44 @@ public class MongoSetExpressionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void beginVisitAttributeFunction(String namespace, String functionName) {
-       throw new MongoTableException("MongoDB Event Table does not support SET function.");
+        this.functionOperandIndices.push(this.setOperands.size());
     }
 
-
     @Override
     public void endVisitAttributeFunction(String namespace, String functionName) {
+        int operandIndex = this.functionOperandIndices.pop();
+        List<Object> parameters = new ArrayList<>(this.setOperands.subList(operandIndex, this.setOperands.size()));
+        this.setOperands.setSize(operandIndex);
+        String function = (MongoTableUtils.isEmpty(namespace) ? "" : namespace + ":") + functionName;
+        String operator;
+        switch (function.toLowerCase(Locale.ENGLISH)) {
+            case MongoTableConstants.FUNCTION_MAXIMUM:
+                operator = MongoTableConstants.MONGO_MAX;
+                break;
+            case MongoTableConstants.FUNCTION_MINIMUM:
+                operator = MongoTableConstants.MONGO_MIN;
+                break;
+            default:
+                throw new MongoTableException("MongoDB Event Table found the function '" + function + "' in the " +
+                        "SET clause. The Mongo Event table only supports the functions 'maximum' and 'minimum' " +
+                        "in the SET clause. Please check your query and try again.");
+        }
+        if (parameters.size() == 2 && parameters.get(0) instanceof Operand.AttributeOperand &&
+                isValue(parameters.get(1))) {
+            this.setOperands.push(new MongoCompiledSetAttribute(operator,
+                    ((Operand.AttributeOperand) parameters.get(0)).getName(), (Operand) parameters.get(1),
+                    getValueType((Operand) parameters.get(1)), false));
+        } else if (parameters.size() == 2 && parameters.get(1) instanceof Operand.AttributeOperand &&
+                isValue(parameters.get(0))) {
+            this.setOperands.push(new MongoCompiledSetAttribute(operator,
+                    ((Operand.AttributeOperand) parameters.get(1)).getName(), (Operand) parameters.get(0),
+                    getValueType((Operand) parameters.get(0)), false));
+        } else {
+            throw new MongoTableException("MongoDB Event Table found operands " + parameters + " for the " +
+                    "function '" + function + "' in the SET clause. The Mongo Event table only supports the " +
+                    "function between the table attribute being set and a stream variable/ constant. Please " +
+                    "check your query and try again.");
+        }
     }
 
     @Override
@@ -217,9 +326,7 @@ public class MongoSetExpressionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void beginVisitStreamVariable(String id, String streamId, String attributeName, Attribute.Type type) {
-        String name = this.generateStreamVarName();
-        this.placeholders.put(name, new Attribute(id, type));
-        conditionOperands.push(name);
+        this.setOperands.push(new Operand.ParameterOperand(this.generateStreamVarName(), new Attribute(id, type)));
     }
 
     @Override
@@ -228,9 +335,7 @@ public class MongoSetExpressionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void beginVisitConstant(Object value, Attribute.Type type) {
-        String name = this.generateConstantName();
-        this.placeholders.put(name, new Constant(value, type));
-        conditionOperands.push(name);
+        this.setOperands.push(new Operand.ConstantOperand(value, type));
     }
 
     @Override
@@ -239,7 +344,7 @@ public class MongoSetExpressionVisitor extends BaseExpressionVisitor {
 
     @Override
     public void beginVisitStoreVariable(String storeId, String attributeName, Attribute.Type type) {
-        this.conditionOperands.push(attributeName);
+        this.setOperands.push(new Operand.AttributeOperand(attributeName));
     }
 
     @Override
@@ -247,24 +352,26 @@ public class MongoSetExpressionVisitor extends BaseExpressionVisitor {
     }
 
     /**
-     * Method for generating a temporary placeholder for stream variables.
+     * Method for checking whether an operand refers to stream variables and constants only.
      *
-     * @return a placeholder string of known format.
+     * @param operand the operand.
+     * @return true if the operand is a value or a MATH operation on values.
      */
-    private String generateStreamVarName() {
-        String name = "strVar" + this.streamVarCount;
-        this.streamVarCount++;
-        return name;
+    private static boolean isValue(Object operand) {
+        return operand instanceof Operand.ParameterOperand || operand instanceof Operand.ConstantOperand ||
+                (operand instanceof Operand.MathOperand &&
+                        isValue(((Operand.MathOperand) operand).getLeftOperand()) &&
+                        isValue(((Operand.MathOperand) operand).getRightOperand()));
     }
 
     /**
-     * Method for generating a temporary placeholder for constants.
+     * Method for generating a temporary placeholder for stream variables.
      *
      * @return a placeholder string of known format.
      */
-    private String generateConstantName() {
-        String name = "const" + this.constantCount;
-        this.constantCount++;
+    private String generateStreamVarName() {
+        String name = "strVar" + this.streamVarCount;
+        this.streamVarCount++;
         return name;
     }
 }
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.store.mongodb;
+
+import com.mongodb.MongoClient;
+import com.mongodb.MongoClientURI;
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoDatabase;
+import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.extension.store.mongodb.condition.FilterNode;
+import io.siddhi.extension.store.mongodb.condition.Operand;
+import io.siddhi.extension.store.mongodb.util.MongoTableUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Class which hash-partitions the documents of the table across several MongoDB deployments by the primary key,
+ * without a mongos router. Shard 0 is the deployment of 'mongodb.uri', which is served by the client of the table,
+ * and the other shards are the deployments of 'shard.uris' in the given order. The shard of a document only
+ * depends on the values of its primary key and the number of shards, hence the shards must not be reordered or
+ * changed once documents are stored. The attributes of the primary key are limited to 'string', 'int' and 'long'.
+ */
+public class MongoShardRouter {
+    private List<MongoClientURI> shardURIs;
+    private MongoClient[] shardClients;
+    private List<String> keyFields;
+    private int[] keyFieldIndices;
+
+    public MongoShardRouter(List<MongoClientURI> shardURIs, List<String> attributeNames, List<String> keyFields) {
+        this.shardURIs = shardURIs;
+        this.shardClients = new MongoClient[shardURIs.size()];
+        this.keyFields = keyFields;
+        this.keyFieldIndices = keyFields.stream().mapToInt(attributeNames::indexOf).toArray();
+    }
+
+    /**
+     * Method for returning the fields of the primary key by which the documents are assigned to the shards.
+     *
+     * @return the fields of the shard key.
+     */
+    public List<String> getKeyFields() {
+        return this.keyFields;
+    }
+
+    /**
+     * Method for returning the number of shards, including the shard of 'mongodb.uri'.
+     *
+     * @return the number of shards.
+     */
+    public int getShardCount() {
+        return this.shardURIs.size() + 1;
+    }
+
+    /**
+     * Method for returning the database of a shard other than the shard of 'mongodb.uri'. The client of the
+     * shard is created on the first use.
+     *
+     * @param shard the index of the shard, starting from 1.
+     * @return the database given by the URI of the shard.
+     */
+    public synchronized MongoDatabase getDatabase(int shard) {
+        MongoClientURI shardURI = this.shardURIs.get(shard - 1);
+        if (this.shardClients[shard - 1] == null) {
+            try {
+                this.shardClients[shard - 1] = new MongoClient(shardURI);
+            } catch (MongoException e) {
+                throw new SiddhiAppCreationException("Annotation 'Store' contains illegal value for element " +
+                        "'shard.uris' as '" + shardURI + "'. Please check your query and try again.", e);
+            }
+        }
+        return this.shardClients[shard - 1].getDatabase(shardURI.getDatabase());
+    }
+
+    /**
+     * Method for finding the operands binding all the fields of the primary key in a condition, so that the
+     * condition is only executed on the shard owning the key.
+     *
+     * @param filter the filter built for the condition.
+     * @return the operands in the order of the primary key, or null if the condition is executed on all shards.
+     */
+    public List<Operand> findKeyOperands(FilterNode filter) {
+        List<Operand> keyOperands = new ArrayList<>();
+        for (String keyField : this.keyFields) {
+            Operand keyOperand = MongoTableUtils.findBoundOperand(filter, keyField);
+            if (keyOperand == null) {
+                return null;
+            }
+            keyOperands.add(keyOperand);
+        }
+        return keyOperands;
+    }
+
+    /**
+     * Method for returning the shard owning a record.
+     *
+     * @param record the record.
+     * @return the index of the shard.
+     */
+    public int findShard(Object[] record) {
+        List<Object> keyValues = new ArrayList<>();
+        for (int keyFieldIndex : this.keyFieldIndices) {
+            keyValues.add(record[keyFieldIndex]);
+        }
+        return this.findShard(keyValues);
+    }
+
+    /**
+     * Method for returning the shard owning the documents matched by a condition binding the primary key.
+     *
+     * @param keyOperands the operands binding the fields of the primary key.
+     * @param parameters  the runtime values of the stream variables of the condition.
+     * @return the index of the shard.
+     */
+    public int findShard(List<Operand> keyOperands, Map<String, Object> parameters) {
+        List<Object> keyValues = new ArrayList<>();
+        for (Operand keyOperand : keyOperands) {
+            keyValues.add(keyOperand.resolve(parameters));
+        }
+        return this.findShard(keyValues);
+    }
+
+    /**
+     * Method for hashing the values of a primary key to a shard. The values are hashed by their string forms,
+     * which do not change across the restarts of the JVM. Numbers are normalized to the 'long' values of the
+     * 'int' and 'long' attributes of the key, so that the equal values of a record and a condition, such as a
+     * 'double' constant 10.0 compared with a 'long' attribute, hash to the same shard.
+     */
+    private int findShard(List<Object> keyValues) {
+        StringBuilder key = new StringBuilder();
+        for (Object keyValue : keyValues) {
+            key.append(keyValue instanceof Number ? String.valueOf(((Number) keyValue).longValue()) : keyValue)
+                    .append('\0');
+        }
+        // The string hash is mixed, so that keys differing in their last characters are spread across the shards.
+        int hash = key.toString().hashCode();
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return Math.floorMod(hash, this.getShardCount());
+    }
+
+    /**
+     * Method for closing the clients of the shards.
+     */
+    public synchronized void close() {
+        for (int shard = 0; shard < this.shardClients.length; shard++) {
+            if (this.shardClients[shard] != null) {
+                this.shardClients[shard].close();
+                this.shardClients[shard] = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,338 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.store.mongodb;
+
+import com.mongodb.MongoException;
+import com.mongodb.client.MongoDatabase;
+import io.siddhi.extension.store.mongodb.condition.FieldFilterNode;
+import io.siddhi.extension.store.mongodb.util.MongoTableConstants;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bson.Document;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Class which routes the events of the table to a collection per time partition, named after the start of the
+ * partition in UTC such as 'Foo_2026_10_16' for daily partitions. The conditions are routed to the partitions
+ * overlapping the range of their predicates on the partition field, and the partitions which end before the
+ * retention period are dropped as a whole instead of deleting their documents.
+ */
+public class MongoTimePartitioner {
+    private static final Log log = LogFactory.getLog(MongoTimePartitioner.class);
+
+    private String collectionName;
+    private String partitionField;
+    private int partitionFieldIndex;
+    private ChronoUnit granularity;
+    private long retentionPeriod;
+    private long retentionInterval;
+    private ScheduledExecutorService scheduledExecutorService;
+    private final ConcurrentSkipListMap<Long, String> partitions = new ConcurrentSkipListMap<>();
+    private volatile ScheduledFuture<?> scheduledDrop;
+    private volatile Long lastCutoff;
+    private final AtomicLong droppedPartitions = new AtomicLong();
+
+    public MongoTimePartitioner(String collectionName, List<String> attributeNames, String partitionField,
+                                ChronoUnit granularity, ScheduledExecutorService scheduledExecutorService) {
+        this.collectionName = collectionName;
+        this.partitionField = partitionField;
+        this.partitionFieldIndex = attributeNames.indexOf(partitionField);
+        this.granularity = granularity;
+        this.scheduledExecutorService = scheduledExecutorService;
+    }
+
+    public String getPartitionField() {
+        return partitionField;
+    }
+
+    /**
+     * Method for enabling the retention of the partitions.
+     *
+     * @param retentionPeriod   the time in milliseconds for which the partitions are retained after their end.
+     * @param retentionInterval the time in milliseconds between the checks for expired partitions.
+     */
+    public void setRetention(long retentionPeriod, long retentionInterval) {
+        this.retentionPeriod = retentionPeriod;
+        this.retentionInterval = retentionInterval;
+    }
+
+    /**
+     * Method for returning the start of the partition of a record.
+     *
+     * @param record the record.
+     * @return the epoch time in milliseconds of the start, or null if the record has no value for the field.
+     */
+    public Long findPartitionStart(Object[] record) {
+        Object time = record[this.partitionFieldIndex];
+        return time instanceof Number ? this.getPartitionStart(((Number) time).longValue()) : null;
+    }
+
+    /**
+     * Method for returning the name of the collection of a partition.
+     *
+     * @param partitionStart the epoch time in milliseconds of the start of the partition.
+     * @return the name of the collection, such as 'Foo_2026_10_16'.
+     */
+    public String getPartitionName(long partitionStart) {
+        ZonedDateTime start = Instant.ofEpochMilli(partitionStart).atZone(ZoneOffset.UTC);
+        switch (this.granularity) {
+            case HOURS:
+                return String.format("%s_%04d_%02d_%02d_%02d", this.collectionName, start.getYear(),
+                        start.getMonthValue(), start.getDayOfMonth(), start.getHour());
+            case MONTHS:
+                return String.format("%s_%04d_%02d", this.collectionName, start.getYear(), start.getMonthValue());
+            default:
+                return String.format("%s_%04d_%02d_%02d", this.collectionName, start.getYear(),
+                        start.getMonthValue(), start.getDayOfMonth());
+        }
+    }
+
+    /**
+     * Method for registering a partition which is written to.
+     *
+     * @param partitionStart the epoch time in milliseconds of the start of the partition.
+     * @return true if the partition was not known to exist, hence its indices have to be created.
+     */
+    public boolean register(long partitionStart) {
+        return this.partitions.putIfAbsent(partitionStart, this.getPartitionName(partitionStart)) == null;
+    }
+
+    /**
+     * Method for forgetting a partition whose preparation failed, so that it is prepared again by the next write.
+     *
+     * @param partitionStart the epoch time in milliseconds of the start of the partition.
+     */
+    public void unregister(long partitionStart) {
+        this.partitions.remove(partitionStart);
+    }
+
+    /**
+     * Method for finding the existing partitions which may contain the documents matched by a resolved filter.
+     * The range of the partition field is narrowed by the equalities and comparisons on the field at the top level
+     * of the filter or within '$and', while the other predicates match any partition.
+     *
+     * @param filter the resolved filter.
+     * @return the names of the collections of the partitions, in the chronological order of the partitions.
+     */
+    public List<String> findPartitions(Document filter) {
+        long[] range = {Long.MIN_VALUE, Long.MAX_VALUE};
+        this.narrowRange(range, filter);
+        if (range[0] > range[1] || this.partitions.isEmpty()) {
+            return new ArrayList<>();
+        }
+        long fromStart = range[0] == Long.MIN_VALUE ? this.partitions.firstKey() : this.getPartitionStart(range[0]);
+        if (fromStart > range[1]) {
+            return new ArrayList<>();
+        }
+        return new ArrayList<>(this.partitions.subMap(fromStart, true, range[1], true).values());
+    }
+
+    private void narrowRange(long[] range, Document filter) {
+        for (Map.Entry<String, Object> entry : filter.entrySet()) {
+            if (entry.getKey().equals(this.partitionField)) {
+                this.narrowRange(range, entry.getValue());
+            } else if (MongoTableConstants.MONGO_AND.equals(entry.getKey())) {
+                for (Object nestedFilter : (List<?>) entry.getValue()) {
+                    this.narrowRange(range, (Document) nestedFilter);
+                }
+            }
+        }
+    }
+
+    private void narrowRange(long[] range, Object predicates) {
+        if (isTime(predicates)) {
+            this.narrowRange(range, new Document(FieldFilterNode.EQUAL, predicates));
+            return;
+        } else if (!(predicates instanceof Document)) {
+            return;
+        }
+        for (Map.Entry<String, Object> predicate : ((Document) predicates).entrySet()) {
+            Object value = predicate.getValue();
+            switch (predicate.getKey()) {
+                case FieldFilterNode.EQUAL:
+                    if (isTime(value)) {
+                        range[0] = Math.max(range[0], toMillis(value));
+                        range[1] = Math.min(range[1], toMillis(value));
+                    }
+                    break;
+                case FieldFilterNode.IN:
+                    if (((List<?>) value).stream().allMatch(MongoTimePartitioner::isTime)) {
+                        range[0] = Math.max(range[0], ((List<?>) value).stream()
+                                .mapToLong(MongoTimePartitioner::toMillis).min().orElse(Long.MAX_VALUE));
+                        range[1] = Math.min(range[1], ((List<?>) value).stream()
+                                .mapToLong(MongoTimePartitioner::toMillis).max().orElse(Long.MIN_VALUE));
+                    }
+                    break;
+                case FieldFilterNode.GREATER_THAN:
+                case FieldFilterNode.GREATER_THAN_EQUAL:
+                    if (isTime(value)) {
+                        range[0] = Math.max(range[0], toMillis(value));
+                    }
+                    break;
+                case FieldFilterNode.LESS_THAN:
+                case FieldFilterNode.LESS_THAN_EQUAL:
+                    if (isTime(value)) {
+                        range[1] = Math.min(range[1], toMillis(value));
+                    }
+                    break;
+                default:
+                    // Negations and the other predicates do not narrow the partitions.
+                    break;
+            }
+        }
+    }
+
+    private static boolean isTime(Object value) {
+        return value instanceof Number || value instanceof Date;
+    }
+
+    private static long toMillis(Object time) {
+        return time instanceof Date ? ((Date) time).getTime() : ((Number) time).longValue();
+    }
+
+    private long getPartitionStart(long time) {
+        ZonedDateTime start = Instant.ofEpochMilli(time).atZone(ZoneOffset.UTC)
+                .truncatedTo(this.granularity == ChronoUnit.HOURS ? ChronoUnit.HOURS : ChronoUnit.DAYS);
+        if (this.granularity == ChronoUnit.MONTHS) {
+            start = start.withDayOfMonth(1);
+        }
+        return start.toInstant().toEpochMilli();
+    }
+
+    private Long parsePartitionStart(String collectionName) {
+        String prefix = this.collectionName + "_";
+        if (!collectionName.startsWith(prefix)) {
+            return null;
+        }
+        String[] parts = collectionName.substring(prefix.length()).split("_");
+        int expectedParts = this.granularity == ChronoUnit.HOURS ? 4 : this.granularity == ChronoUnit.MONTHS ? 2 : 3;
+        if (parts.length != expectedParts) {
+            return null;
+        }
+        try {
+            long partitionStart = LocalDateTime.of(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]),
+                    parts.length > 2 ? Integer.parseInt(parts[2]) : 1,
+                    parts.length > 3 ? Integer.parseInt(parts[3]) : 0, 0).toInstant(ZoneOffset.UTC).toEpochMilli();
+            // Only the names written by the same granularity are partitions, such as not 'Foo_archive_2026_10'.
+            return collectionName.equals(this.getPartitionName(partitionStart)) ? partitionStart : null;
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Method for loading the partitions existing in the database, which includes the partitions created by other
+     * instances of the table. The known partitions are only forgotten once they expire, since a partition which
+     * was just registered by a write may not exist yet.
+     *
+     * @param database the database which contains the partitions.
+     */
+    public void refresh(MongoDatabase database) {
+        for (String name : database.listCollectionNames()) {
+            Long partitionStart = this.parsePartitionStart(name);
+            if (partitionStart != null) {
+                this.partitions.putIfAbsent(partitionStart, name);
+            }
+        }
+    }
+
+    /**
+     * Method for starting the periodic drop of the expired partitions, if a retention period is given. A drop
+     * which is already scheduled is kept.
+     *
+     * @param database the supplier of the database which contains the partitions.
+     */
+    public synchronized void start(Supplier<MongoDatabase> database) {
+        if (this.retentionPeriod > 0 && this.scheduledDrop == null) {
+            try {
+                this.scheduledDrop = this.scheduledExecutorService.scheduleWithFixedDelay(
+                        () -> this.dropExpiredPartitions(database), this.retentionInterval, this.retentionInterval,
+                        TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                this.scheduledDrop = null;
+            }
+        }
+    }
+
+    /**
+     * Method for stopping the periodic drop of the expired partitions.
+     */
+    public synchronized void stop() {
+        if (this.scheduledDrop != null) {
+            this.scheduledDrop.cancel(false);
+            this.scheduledDrop = null;
+        }
+    }
+
+    /**
+     * Method for dropping the partitions which end before the retention period. Dropping a collection releases
+     * its storage at once, without the write load and the fragmentation of deleting its documents.
+     */
+    private void dropExpiredPartitions(Supplier<MongoDatabase> database) {
+        try {
+            MongoDatabase mongoDatabase = database.get();
+            this.refresh(mongoDatabase);
+            long cutoff = System.currentTimeMillis() - this.retentionPeriod;
+            this.lastCutoff = cutoff;
+            for (Map.Entry<Long, String> partition :
+                    this.partitions.headMap(this.getPartitionStart(cutoff), false).entrySet()) {
+                mongoDatabase.getCollection(partition.getValue()).drop();
+                this.partitions.remove(partition.getKey());
+                this.droppedPartitions.incrementAndGet();
+                if (log.isDebugEnabled()) {
+                    log.debug("The expired partition '" + partition.getValue() + "' of the collection '" +
+                            this.collectionName + "' was dropped.");
+                }
+            }
+        } catch (MongoException | IllegalStateException e) {
+            // The client is closed while the table is being destroyed, which stops the drop as well.
+            log.warn("Dropping the expired partitions of the collection '" + this.collectionName + "' failed due " +
+                    "to " + e.getMessage() + ". Retrying after " + this.retentionInterval + " ms.");
+        }
+    }
+
+    /**
+     * Method for returning the state of the partitions.
+     *
+     * @return Document describing the partition field, the existing partitions, the last retention cutoff and the
+     * number of dropped partitions.
+     */
+    public Document getStatistics() {
+        return new Document()
+                .append("partitionField", this.partitionField)
+                .append("partitions", new ArrayList<>(this.partitions.values()))
+                .append("cutoff", this.lastCutoff)
+                .append("droppedPartitions", this.droppedPartitions.get());
+    }
+}
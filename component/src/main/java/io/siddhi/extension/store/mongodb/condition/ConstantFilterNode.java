@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.store.mongodb.condition;
+
+import org.bson.Document;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Denotes a boolean constant of the condition, which either matches all the documents or none of them.
+ */
+public class ConstantFilterNode extends FilterNode {
+    public static final ConstantFilterNode TRUE = new ConstantFilterNode(true);
+    public static final ConstantFilterNode FALSE = new ConstantFilterNode(false);
+
+    private boolean value;
+
+    private ConstantFilterNode(boolean value) {
+        this.value = value;
+    }
+
+    public static ConstantFilterNode valueOf(boolean value) {
+        return value ? TRUE : FALSE;
+    }
+
+    public boolean getValue() {
+        return value;
+    }
+
+    @Override
+    public boolean hasPlainNegation() {
+        return true;
+    }
+
+    @Override
+    public FilterNode negate() {
+        return valueOf(!this.value);
+    }
+
+    @Override
+    public Document toDocument(Map<String, Object> parameters) {
+        // Every document has an '_id' field, hence the filter on its absence matches none of them.
+        return this.value ? new Document() : new Document("_id", new Document(FieldFilterNode.EXISTS, false));
+    }
+
+    @Override
+    public RowPredicate toPredicate(List<String> attributeNames, Comparator<String> stringComparator) {
+        boolean matches = this.value;
+        return (row, parameters) -> matches;
+    }
+
+    @Override
+    public String toString() {
+        return String.valueOf(this.value);
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.store.mongodb.condition;
+
+import io.siddhi.extension.store.mongodb.util.MongoTableConstants;
+import io.siddhi.query.api.definition.Attribute;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Denotes a comparison which can only be evaluated by the MongoDB using '$expr', such as a comparison on a MATH
+ * operation or between two attributes of the table. The comparison does not match when a divisor of its MATH
+ * operations is zero, since '$expr' would otherwise compare the undefined result by the BSON type order.
+ */
+public class ExprFilterNode extends FilterNode {
+    private static final String EXPR = "$expr";
+    private static final String NOT = "$not";
+    private static final String AND = "$and";
+
+    private String operator;
+    private Operand leftOperand;
+    private Operand rightOperand;
+    private boolean negated;
+    private List<Operand> divisors;
+
+    public ExprFilterNode(String operator, Operand leftOperand, Operand rightOperand) {
+        this(operator, leftOperand, rightOperand, false);
+    }
+
+    private ExprFilterNode(String operator, Operand leftOperand, Operand rightOperand, boolean negated) {
+        this.operator = operator;
+        this.leftOperand = leftOperand;
+        this.rightOperand = rightOperand;
+        this.negated = negated;
+        this.divisors = new ArrayList<>();
+        collectDivisors(leftOperand, this.divisors);
+        collectDivisors(rightOperand, this.divisors);
+    }
+
+    /**
+     * Method for creating the node of a comparison evaluated using '$expr', guarded by a '$ne: null' predicate on
+     * each table attribute referred by the comparison. '$expr' orders null and missing fields before all the other
+     * values, whereas Siddhi never matches a comparison on a null value.
+     *
+     * @param operator     the MongoDB compare operator.
+     * @param leftOperand  the left operand of the comparison.
+     * @param rightOperand the right operand of the comparison.
+     * @return the node.
+     */
+    public static FilterNode guarded(String operator, Operand leftOperand, Operand rightOperand) {
+        Set<String> fields = new LinkedHashSet<>();
+        collectFields(leftOperand, fields);
+        collectFields(rightOperand, fields);
+        List<FilterNode> children = new ArrayList<>();
+        for (String field : fields) {
+            children.add(new FieldFilterNode(field, FieldFilterNode.NOT_EQUAL,
+                    new Operand.ConstantOperand(null, Attribute.Type.OBJECT)));
+        }
+        children.add(new ExprFilterNode(operator, leftOperand, rightOperand));
+        return new LogicalFilterNode(LogicalFilterNode.Type.AND, children);
+    }
+
+    private static void collectFields(Operand operand, Set<String> fields) {
+        if (operand instanceof Operand.AttributeOperand) {
+            fields.add(((Operand.AttributeOperand) operand).getName());
+        } else if (operand instanceof Operand.MathOperand) {
+            collectFields(((Operand.MathOperand) operand).getLeftOperand(), fields);
+            collectFields(((Operand.MathOperand) operand).getRightOperand(), fields);
+        }
+    }
+
+    private static void collectDivisors(Operand operand, List<Operand> divisors) {
+        if (operand instanceof Operand.MathOperand) {
+            Operand.MathOperand mathOperand = (Operand.MathOperand) operand;
+            collectDivisors(mathOperand.getLeftOperand(), divisors);
+            collectDivisors(mathOperand.getRightOperand(), divisors);
+            if (MongoTableConstants.MONGO_DIVIDE.equals(mathOperand.getOperator()) ||
+                    MongoTableConstants.MONGO_MOD.equals(mathOperand.getOperator())) {
+                divisors.add(mathOperand.getRightOperand());
+            }
+        }
+    }
+
+    @Override
+    public boolean hasPlainNegation() {
+        return true;
+    }
+
+    @Override
+    public FilterNode negate() {
+        return new ExprFilterNode(this.operator, this.leftOperand, this.rightOperand, !this.negated);
+    }
+
+    @Override
+    public Document toDocument(Map<String, Object> parameters) {
+        Document expression = new Document(this.operator, Arrays.asList(this.leftOperand.toExpression(parameters),
+                this.rightOperand.toExpression(parameters)));
+        if (!this.divisors.isEmpty()) {
+            // '$and' stops at the first false operand, hence the comparison is skipped for a zero divisor.
+            List<Object> guardedExpressions = new ArrayList<>();
+            for (Operand divisor : this.divisors) {
+                guardedExpressions.add(new Document(FieldFilterNode.NOT_EQUAL,
+                        Arrays.asList(divisor.toExpression(parameters), 0)));
+            }
+            guardedExpressions.add(expression);
+            expression = new Document(AND, guardedExpressions);
+        }
+        return new Document(EXPR, this.negated ? new Document(NOT, Collections.singletonList(expression)) :
+                expression);
+    }
+
+    @Override
+    public RowPredicate toPredicate(List<String> attributeNames, Comparator<String> stringComparator) {
+        Operand.RowFunction left = this.leftOperand.toRowFunction(attributeNames);
+        Operand.RowFunction right = this.rightOperand.toRowFunction(attributeNames);
+        List<Operand.RowFunction> divisorFunctions = new ArrayList<>();
+        for (Operand divisor : this.divisors) {
+            divisorFunctions.add(divisor.toRowFunction(attributeNames));
+        }
+        String compareOperator = this.operator;
+        boolean negated = this.negated;
+        return (row, parameters) -> {
+            for (Operand.RowFunction divisorFunction : divisorFunctions) {
+                Object divisor = divisorFunction.apply(row, parameters);
+                if (divisor instanceof Number && RowValues.compareTotal(divisor, 0, null) == 0) {
+                    return negated;
+                }
+            }
+            int comparison = RowValues.compareTotal(left.apply(row, parameters), right.apply(row, parameters),
+                    stringComparator);
+            boolean matches;
+            switch (compareOperator) {
+                case FieldFilterNode.EQUAL:
+                    matches = comparison == 0;
+                    break;
+                case FieldFilterNode.NOT_EQUAL:
+                    matches = comparison != 0;
+                    break;
+                case FieldFilterNode.GREATER_THAN:
+                    matches = comparison > 0;
+                    break;
+                case FieldFilterNode.GREATER_THAN_EQUAL:
+                    matches = comparison >= 0;
+                    break;
+                case FieldFilterNode.LESS_THAN:
+                    matches = comparison < 0;
+                    break;
+                default:
+                    matches = comparison <= 0;
+                    break;
+            }
+            return matches != negated;
+        };
+    }
+
+    @Override
+    public String toString() {
+        String expression = "{" + this.operator + ":[" + this.leftOperand + "," + this.rightOperand + "]}";
+        return "{" + EXPR + ":" + (this.negated ? "{" + NOT + ":[" + expression + "]}" : expression) + "}";
+    }
+}
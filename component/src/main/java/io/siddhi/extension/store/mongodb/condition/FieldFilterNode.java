@@ -0,0 +1,274 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.store.mongodb.condition;
+
+import io.siddhi.query.api.definition.Attribute;
+import org.bson.BsonRegularExpression;
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Denotes the predicates on a single field of the collection, such as '{price:{$gte:10,$lt:20}}'. Predicates on
+ * the same field joined by an AND operation are merged into a single node, and a negated node is resolved with
+ * '$not'.
+ */
+public class FieldFilterNode extends FilterNode {
+    public static final String EQUAL = "$eq";
+    public static final String NOT_EQUAL = "$ne";
+    public static final String GREATER_THAN = "$gt";
+    public static final String GREATER_THAN_EQUAL = "$gte";
+    public static final String LESS_THAN = "$lt";
+    public static final String LESS_THAN_EQUAL = "$lte";
+    public static final String IN = "$in";
+    public static final String NOT_IN = "$nin";
+    public static final String EXISTS = "$exists";
+    public static final String REGEX = "$regex";
+    private static final String OPTIONS = "$options";
+    private static final String NOT = "$not";
+
+    private String field;
+    private Map<String, Object> predicates;
+    private boolean negated;
+
+    public FieldFilterNode(String field, String operator, Object value) {
+        this(field, Collections.singletonMap(operator, value), false);
+    }
+
+    private FieldFilterNode(String field, Map<String, Object> predicates, boolean negated) {
+        this.field = field;
+        this.predicates = new LinkedHashMap<>(predicates);
+        this.negated = negated;
+    }
+
+    /**
+     * Method for creating the node which matches the documents where the field is null or missing.
+     *
+     * @param field the name of the field.
+     * @return the node.
+     */
+    public static FieldFilterNode isNull(String field) {
+        return new FieldFilterNode(field, EQUAL, new Operand.ConstantOperand(null, Attribute.Type.OBJECT));
+    }
+
+    public String getField() {
+        return field;
+    }
+
+    public Map<String, Object> getPredicates() {
+        return predicates;
+    }
+
+    public boolean isNegated() {
+        return negated;
+    }
+
+    /**
+     * Method for merging the predicates of another node on the same field, which are joined by an AND operation.
+     *
+     * @param other the other node.
+     * @return the merged node or null if the predicates can not be merged.
+     */
+    FieldFilterNode merge(FieldFilterNode other) {
+        if (!this.field.equals(other.field) || this.negated || other.negated ||
+                !Collections.disjoint(this.predicates.keySet(), other.predicates.keySet())) {
+            return null;
+        }
+        Map<String, Object> mergedPredicates = new LinkedHashMap<>(this.predicates);
+        mergedPredicates.putAll(other.predicates);
+        return new FieldFilterNode(this.field, mergedPredicates, false);
+    }
+
+    /**
+     * Method for returning the values of an equality or '$in' node, so that the equalities on the same field
+     * joined by an OR operation can be collapsed into a single '$in' node.
+     *
+     * @return the values or null if the node is not an equality or '$in' node.
+     */
+    @SuppressWarnings("unchecked")
+    List<Operand> getEqualityValues() {
+        if (this.negated || this.predicates.size() != 1) {
+            return null;
+        } else if (this.predicates.containsKey(EQUAL)) {
+            return Collections.singletonList((Operand) this.predicates.get(EQUAL));
+        } else if (this.predicates.containsKey(IN)) {
+            return (List<Operand>) this.predicates.get(IN);
+        }
+        return null;
+    }
+
+    @Override
+    public boolean hasPlainNegation() {
+        if (this.negated) {
+            return true;
+        } else if (this.predicates.size() == 1) {
+            String operator = this.predicates.keySet().iterator().next();
+            return EQUAL.equals(operator) || NOT_EQUAL.equals(operator) || IN.equals(operator) ||
+                    NOT_IN.equals(operator);
+        }
+        return this.isNotNull();
+    }
+
+    @Override
+    public FilterNode negate() {
+        if (this.negated) {
+            return new FieldFilterNode(this.field, this.predicates, false);
+        } else if (this.isNull()) {
+            // '$exists' allows a sparse index on the field to serve the query, while '$ne' excludes the nulls.
+            Map<String, Object> notNullPredicates = new LinkedHashMap<>();
+            notNullPredicates.put(EXISTS, new Operand.ConstantOperand(true, Attribute.Type.BOOL));
+            notNullPredicates.put(NOT_EQUAL, this.predicates.get(EQUAL));
+            return new FieldFilterNode(this.field, notNullPredicates, false);
+        } else if (this.isNotNull()) {
+            return isNull(this.field);
+        } else if (this.predicates.size() == 1) {
+            Map.Entry<String, Object> predicate = this.predicates.entrySet().iterator().next();
+            switch (predicate.getKey()) {
+                case EQUAL:
+                    return new FieldFilterNode(this.field, NOT_EQUAL, predicate.getValue());
+                case NOT_EQUAL:
+                    return new FieldFilterNode(this.field, EQUAL, predicate.getValue());
+                case IN:
+                    return new FieldFilterNode(this.field, NOT_IN, predicate.getValue());
+                case NOT_IN:
+                    return new FieldFilterNode(this.field, IN, predicate.getValue());
+                default:
+                    break;
+            }
+        }
+        // Comparisons are not inverted, since '$not' also matches the documents where the field is null or missing.
+        return new FieldFilterNode(this.field, this.predicates, true);
+    }
+
+    private boolean isNull() {
+        Object value = this.predicates.get(EQUAL);
+        return this.predicates.size() == 1 && value instanceof Operand.ConstantOperand &&
+                ((Operand.ConstantOperand) value).getValue() == null;
+    }
+
+    private boolean isNotNull() {
+        Object value = this.predicates.get(NOT_EQUAL);
+        return this.predicates.size() == 2 && this.predicates.containsKey(EXISTS) &&
+                value instanceof Operand.ConstantOperand && ((Operand.ConstantOperand) value).getValue() == null;
+    }
+
+    @Override
+    public Document toDocument(Map<String, Object> parameters) {
+        Document predicatesDocument = new Document();
+        for (Map.Entry<String, Object> predicate : this.predicates.entrySet()) {
+            Object value = predicate.getValue();
+            if (value instanceof List) {
+                List<Object> values = new ArrayList<>();
+                for (Object operand : (List<?>) value) {
+                    values.add(((Operand) operand).resolve(parameters));
+                }
+                predicatesDocument.append(predicate.getKey(), values);
+            } else {
+                predicatesDocument.append(predicate.getKey(), ((Operand) value).resolve(parameters));
+                if (value instanceof Operand.RegexOperand && ((Operand.RegexOperand) value).isCaseInsensitive()) {
+                    predicatesDocument.append(OPTIONS, "i");
+                }
+            }
+        }
+        if (!this.negated) {
+            return new Document(this.field, predicatesDocument);
+        } else if (predicatesDocument.containsKey(REGEX) &&
+                predicatesDocument.size() == (predicatesDocument.containsKey(OPTIONS) ? 2 : 1)) {
+            // '$not' accepts a regular expression object on all server versions, but '$regex' only on 4.0.7+.
+            return new Document(this.field, new Document(NOT, new BsonRegularExpression(
+                    predicatesDocument.getString(REGEX), predicatesDocument.getString(OPTIONS))));
+        }
+        return new Document(this.field, new Document(NOT, predicatesDocument));
+    }
+
+    @Override
+    public RowPredicate toPredicate(List<String> attributeNames, Comparator<String> stringComparator) {
+        Operand.RowFunction fieldFunction = new Operand.AttributeOperand(this.field).toRowFunction(attributeNames);
+        ValuePredicate[] valuePredicates = new ValuePredicate[this.predicates.size()];
+        int i = 0;
+        for (Map.Entry<String, Object> predicate : this.predicates.entrySet()) {
+            valuePredicates[i++] = createValuePredicate(predicate.getKey(), predicate.getValue(), stringComparator);
+        }
+        boolean negated = this.negated;
+        return (row, parameters) -> {
+            Object fieldValue = fieldFunction.apply(row, parameters);
+            for (ValuePredicate valuePredicate : valuePredicates) {
+                if (!valuePredicate.test(fieldValue, parameters)) {
+                    return negated;
+                }
+            }
+            return !negated;
+        };
+    }
+
+    private static ValuePredicate createValuePredicate(String operator, Object value,
+                                                       Comparator<String> stringComparator) {
+        switch (operator) {
+            case IN:
+            case NOT_IN:
+                Operand[] values = ((List<?>) value).toArray(new Operand[0]);
+                boolean in = IN.equals(operator);
+                return (fieldValue, parameters) -> {
+                    for (Operand operand : values) {
+                        if (RowValues.matches(EQUAL, fieldValue, operand.resolve(parameters), stringComparator)) {
+                            return in;
+                        }
+                    }
+                    return !in;
+                };
+            case EXISTS:
+                boolean exists = Boolean.TRUE.equals(((Operand) value).resolve(Collections.emptyMap()));
+                return (fieldValue, parameters) -> (fieldValue != RowValues.MISSING) == exists;
+            case REGEX:
+                // Regular expressions are matched by code points, regardless of the collation.
+                Operand.RegexOperand regex = (Operand.RegexOperand) value;
+                return (fieldValue, parameters) -> fieldValue instanceof String &&
+                        regex.toPattern(parameters).matcher((String) fieldValue).find();
+            default:
+                Operand operand = (Operand) value;
+                return (fieldValue, parameters) ->
+                        RowValues.matches(operator, fieldValue, operand.resolve(parameters), stringComparator);
+        }
+    }
+
+    @Override
+    public String toString() {
+        String predicatesString = this.predicates.entrySet().stream().map(predicate ->
+                predicate.getKey() + ":" + (predicate.getValue() instanceof List ?
+                        ((List<?>) predicate.getValue()).stream().map(String::valueOf)
+                                .collect(Collectors.joining(",", "[", "]")) :
+                        String.valueOf(predicate.getValue())))
+                .collect(Collectors.joining(",", "{", "}"));
+        return "{" + this.field + ":" + (this.negated ? "{" + NOT + ":" + predicatesString + "}" : predicatesString) +
+                "}";
+    }
+
+    /**
+     * Denotes a single predicate of the node, evaluated on the value of the field.
+     */
+    @FunctionalInterface
+    private interface ValuePredicate {
+        boolean test(Object fieldValue, Map<String, Object> parameters);
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.store.mongodb.condition;
+
+import org.bson.Document;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Denotes a node of the abstract syntax tree built for a Siddhi query condition by the condition visitor.
+ * The tree is normalized once at compile time and resolved to a BSON filter for the runtime values of each event.
+ */
+public abstract class FilterNode {
+
+    /**
+     * Method for resolving the node to a MongoDB filter.
+     *
+     * @param parameters the runtime values of the stream variables, keyed by the stream variable ids.
+     * @return the MongoDB filter.
+     */
+    public abstract Document toDocument(Map<String, Object> parameters);
+
+    /**
+     * Method for compiling the node to a predicate over the records of the table, with the same semantics as the
+     * MongoDB filter resolved by {@link #toDocument(Map)}.
+     *
+     * @param attributeNames   the names of the attributes of the table, in the order of the records.
+     * @param stringComparator the comparator of string values for the collation of the condition, or null if
+     *                         strings are compared by their code points.
+     * @return the predicate.
+     */
+    public abstract RowPredicate toPredicate(List<String> attributeNames, Comparator<String> stringComparator);
+
+    /**
+     * Method for returning the node which matches exactly the documents not matched by this node.
+     * Negations are pushed down to the leaves, so that no separate NOT node exists in the tree.
+     *
+     * @return the negated node.
+     */
+    public abstract FilterNode negate();
+
+    /**
+     * Method for returning the normalized form of the node, with nested logical operations flattened, constant
+     * operands folded and the predicates on the same field merged.
+     *
+     * @return the normalized node.
+     */
+    public FilterNode normalize() {
+        return this;
+    }
+
+    /**
+     * Method for checking whether the negation of the node can be expressed without '$not' or '$nor', so that it
+     * can still be merged with other predicates and served by an index.
+     *
+     * @return true if the negation is a plain predicate.
+     */
+    public boolean hasPlainNegation() {
+        return false;
+    }
+}
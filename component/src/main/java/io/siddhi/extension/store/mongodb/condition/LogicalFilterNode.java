@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.store.mongodb.condition;
+
+import org.bson.Document;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Denotes an AND, OR or NOR operation on any number of child nodes. NOR operations are only created when a
+ * negated OR operation can not be expressed as an AND operation of plain predicates.
+ */
+public class LogicalFilterNode extends FilterNode {
+
+    /**
+     * Type of the logical operation, named after the MongoDB operator it is resolved to.
+     */
+    public enum Type {
+        AND("$and"), OR("$or"), NOR("$nor");
+
+        private String operator;
+
+        Type(String operator) {
+            this.operator = operator;
+        }
+
+        public String getOperator() {
+            return operator;
+        }
+    }
+
+    private Type type;
+    private List<FilterNode> children;
+
+    public LogicalFilterNode(Type type, List<FilterNode> children) {
+        this.type = type;
+        this.children = children;
+    }
+
+    public LogicalFilterNode(Type type, FilterNode leftChild, FilterNode rightChild) {
+        this(type, new ArrayList<>());
+        this.children.add(leftChild);
+        this.children.add(rightChild);
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public List<FilterNode> getChildren() {
+        return children;
+    }
+
+    @Override
+    public boolean hasPlainNegation() {
+        if (this.type == Type.AND) {
+            return false;
+        }
+        return this.children.stream().allMatch(FilterNode::hasPlainNegation);
+    }
+
+    @Override
+    public FilterNode negate() {
+        switch (this.type) {
+            case AND:
+                return new LogicalFilterNode(Type.OR, negateChildren());
+            case OR:
+                if (this.hasPlainNegation()) {
+                    return new LogicalFilterNode(Type.AND, negateChildren());
+                }
+                return new LogicalFilterNode(Type.NOR, this.children);
+            default:
+                return new LogicalFilterNode(Type.OR, this.children);
+        }
+    }
+
+    private List<FilterNode> negateChildren() {
+        return this.children.stream().map(FilterNode::negate).collect(Collectors.toList());
+    }
+
+    @Override
+    public FilterNode normalize() {
+        List<FilterNode> normalizedChildren = new ArrayList<>();
+        for (FilterNode child : this.children) {
+            FilterNode normalizedChild = child.normalize();
+            if (normalizedChild instanceof ConstantFilterNode) {
+                boolean value = ((ConstantFilterNode) normalizedChild).getValue();
+                if (this.type == Type.AND ? !value : value) {
+                    // A false operand of an AND operation or a true operand of an OR or NOR operation decides it.
+                    return ConstantFilterNode.valueOf(this.type == Type.OR);
+                }
+            } else if (normalizedChild instanceof LogicalFilterNode &&
+                    ((LogicalFilterNode) normalizedChild).type == (this.type == Type.NOR ? Type.OR : this.type)) {
+                normalizedChildren.addAll(((LogicalFilterNode) normalizedChild).children);
+            } else {
+                normalizedChildren.add(normalizedChild);
+            }
+        }
+        normalizedChildren = this.type == Type.AND ? mergeFieldPredicates(normalizedChildren) :
+                collapseEqualities(normalizedChildren);
+        if (normalizedChildren.isEmpty()) {
+            return ConstantFilterNode.valueOf(this.type != Type.OR);
+        } else if (normalizedChildren.size() == 1) {
+            FilterNode child = normalizedChildren.get(0);
+            if (this.type != Type.NOR) {
+                return child;
+            } else if (child.hasPlainNegation()) {
+                return child.negate();
+            }
+        }
+        return new LogicalFilterNode(this.type, normalizedChildren);
+    }
+
+    /**
+     * Method for merging the predicates on the same field of an AND operation, such as the bounds of a range.
+     */
+    private static List<FilterNode> mergeFieldPredicates(List<FilterNode> children) {
+        List<FilterNode> mergedChildren = new ArrayList<>();
+        for (FilterNode child : children) {
+            boolean merged = false;
+            if (child instanceof FieldFilterNode) {
+                for (int i = 0; i < mergedChildren.size() && !merged; i++) {
+                    if (mergedChildren.get(i) instanceof FieldFilterNode) {
+                        FieldFilterNode mergedChild = ((FieldFilterNode) mergedChildren.get(i))
+                                .merge((FieldFilterNode) child);
+                        if (mergedChild != null) {
+                            mergedChildren.set(i, mergedChild);
+                            merged = true;
+                        }
+                    }
+                }
+            }
+            if (!merged) {
+                mergedChildren.add(child);
+            }
+        }
+        return mergedChildren;
+    }
+
+    /**
+     * Method for collapsing the equalities on the same field of an OR or NOR operation into a single '$in' check,
+     * so that a chain of equalities can be served by a single index lookup.
+     */
+    private static List<FilterNode> collapseEqualities(List<FilterNode> children) {
+        Map<String, List<Operand>> equalities = new LinkedHashMap<>();
+        List<FilterNode> collapsedChildren = new ArrayList<>();
+        for (FilterNode child : children) {
+            List<Operand> values = child instanceof FieldFilterNode ?
+                    ((FieldFilterNode) child).getEqualityValues() : null;
+            if (values == null) {
+                collapsedChildren.add(child);
+                continue;
+            }
+            String field = ((FieldFilterNode) child).getField();
+            if (!equalities.containsKey(field)) {
+                equalities.put(field, new ArrayList<>());
+                // The position of the first equality on the field is kept for the collapsed check.
+                collapsedChildren.add(child);
+            }
+            List<Operand> fieldValues = equalities.get(field);
+            for (Operand value : values) {
+                if (fieldValues.stream().noneMatch(fieldValue -> fieldValue.toString().equals(value.toString()))) {
+                    fieldValues.add(value);
+                }
+            }
+        }
+        for (int i = 0; i < collapsedChildren.size(); i++) {
+            FilterNode child = collapsedChildren.get(i);
+            if (child instanceof FieldFilterNode && ((FieldFilterNode) child).getEqualityValues() != null) {
+                List<Operand> values = equalities.get(((FieldFilterNode) child).getField());
+                if (values.size() > 1) {
+                    collapsedChildren.set(i, new FieldFilterNode(((FieldFilterNode) child).getField(),
+                            FieldFilterNode.IN, values));
+                } else if (((FieldFilterNode) child).getPredicates().containsKey(FieldFilterNode.IN)) {
+                    collapsedChildren.set(i, new FieldFilterNode(((FieldFilterNode) child).getField(),
+                            FieldFilterNode.EQUAL, values.get(0)));
+                }
+            }
+        }
+        return collapsedChildren;
+    }
+
+    @Override
+    public Document toDocument(Map<String, Object> parameters) {
+        List<Document> childDocuments = new ArrayList<>();
+        for (FilterNode child : this.children) {
+            childDocuments.add(child.toDocument(parameters));
+        }
+        if (this.type == Type.AND) {
+            // Children on distinct fields are joined into a single document, which is the form the planner prefers.
+            Document mergedDocument = new Document();
+            for (Document childDocument : childDocuments) {
+                if (!Collections.disjoint(mergedDocument.keySet(), childDocument.keySet())) {
+                    return new Document(this.type.getOperator(), childDocuments);
+                }
+                mergedDocument.putAll(childDocument);
+            }
+            return mergedDocument;
+        }
+        return new Document(this.type.getOperator(), childDocuments);
+    }
+
+    @Override
+    public RowPredicate toPredicate(List<String> attributeNames, Comparator<String> stringComparator) {
+        RowPredicate[] childPredicates = new RowPredicate[this.children.size()];
+        for (int i = 0; i < childPredicates.length; i++) {
+            childPredicates[i] = this.children.get(i).toPredicate(attributeNames, stringComparator);
+        }
+        // An AND operation stops at the first unmatched child, while OR and NOR operations stop at the first match.
+        boolean stopOnMatch = this.type != Type.AND;
+        boolean resultOnStop = this.type == Type.OR;
+        return (row, parameters) -> {
+            for (RowPredicate childPredicate : childPredicates) {
+                if (childPredicate.test(row, parameters) == stopOnMatch) {
+                    return resultOnStop;
+                }
+            }
+            return !resultOnStop;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "{" + this.type.getOperator() + ":" + this.children.stream().map(String::valueOf)
+                .collect(Collectors.joining(",", "[", "]")) + "}";
+    }
+}
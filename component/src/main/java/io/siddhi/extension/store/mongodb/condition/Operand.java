@@ -0,0 +1,378 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.store.mongodb.condition;
+
+import io.siddhi.extension.store.mongodb.util.MongoTableConstants;
+import io.siddhi.extension.store.mongodb.util.MongoTableUtils;
+import io.siddhi.query.api.definition.Attribute;
+import org.bson.Document;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Denotes a value operand of a Siddhi query condition, which is either a table attribute, a stream variable,
+ * a constant, a MATH operation or a regular expression built from one of them.
+ */
+public abstract class Operand {
+
+    /**
+     * Method for resolving the runtime value of the operand.
+     *
+     * @param parameters the runtime values of the stream variables, keyed by the stream variable ids.
+     * @return the value of the operand.
+     */
+    public abstract Object resolve(Map<String, Object> parameters);
+
+    /**
+     * Method for resolving the operand to an aggregation expression, as used inside '$expr'. Values are wrapped
+     * with '$literal' so that string values starting with '$' are not treated as field paths.
+     *
+     * @param parameters the runtime values of the stream variables, keyed by the stream variable ids.
+     * @return the aggregation expression.
+     */
+    public Object toExpression(Map<String, Object> parameters) {
+        return new Document("$literal", this.resolve(parameters));
+    }
+
+    /**
+     * Method for compiling the operand to a function over the records of the table, as used by the
+     * {@link RowPredicate}s.
+     *
+     * @param attributeNames the names of the attributes of the table, in the order of the records.
+     * @return the function resolving the value of the operand for a record.
+     */
+    public RowFunction toRowFunction(List<String> attributeNames) {
+        return (row, parameters) -> this.resolve(parameters);
+    }
+
+    /**
+     * Method for checking whether the operand is a value known when the filter is resolved, as opposed to a
+     * table attribute or a computation on table attributes.
+     *
+     * @return true if the operand is a stream variable or a constant.
+     */
+    public boolean isValue() {
+        return false;
+    }
+
+    /**
+     * Operand referring to an attribute of the table.
+     */
+    public static class AttributeOperand extends Operand {
+        private String name;
+
+        public AttributeOperand(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public Object resolve(Map<String, Object> parameters) {
+            throw new UnsupportedOperationException("Table attribute '" + this.name + "' has no value at " +
+                    "compile time.");
+        }
+
+        @Override
+        public Object toExpression(Map<String, Object> parameters) {
+            return "$" + this.name;
+        }
+
+        @Override
+        public RowFunction toRowFunction(List<String> attributeNames) {
+            String[] path = this.name.split("\\.");
+            int attributeIndex = attributeNames.indexOf(path[0]);
+            String[] nestedPath = Arrays.copyOfRange(path, 1, path.length);
+            return (row, parameters) -> RowValues.resolveField(row, attributeIndex, nestedPath);
+        }
+
+        @Override
+        public String toString() {
+            return "'$" + this.name + "'";
+        }
+    }
+
+    /**
+     * Operand referring to an attribute of the table which holds an epoch time in milliseconds stored as a BSON
+     * Date. Aggregation expressions convert the date back to the epoch time using '$toLong', so that it can be
+     * compared with and computed on as the 'long' value of Siddhi.
+     */
+    public static class DateAttributeOperand extends AttributeOperand {
+
+        public DateAttributeOperand(String name) {
+            super(name);
+        }
+
+        @Override
+        public Object toExpression(Map<String, Object> parameters) {
+            return new Document("$toLong", super.toExpression(parameters));
+        }
+
+        @Override
+        public RowFunction toRowFunction(List<String> attributeNames) {
+            RowFunction fieldFunction = super.toRowFunction(attributeNames);
+            return (row, parameters) -> {
+                Object value = fieldFunction.apply(row, parameters);
+                return value instanceof Date ? ((Date) value).getTime() : value;
+            };
+        }
+    }
+
+    /**
+     * Operand referring to a stream variable, resolved from the condition parameters of each event.
+     */
+    public static class ParameterOperand extends Operand {
+        private String placeholder;
+        private Attribute attribute;
+
+        public ParameterOperand(String placeholder, Attribute attribute) {
+            this.placeholder = placeholder;
+            this.attribute = attribute;
+        }
+
+        public Attribute getAttribute() {
+            return attribute;
+        }
+
+        @Override
+        public Object resolve(Map<String, Object> parameters) {
+            return parameters.get(this.attribute.getName());
+        }
+
+        @Override
+        public boolean isValue() {
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return this.placeholder;
+        }
+    }
+
+    /**
+     * Operand referring to a constant of the condition.
+     */
+    public static class ConstantOperand extends Operand {
+        private Object value;
+        private Attribute.Type type;
+
+        public ConstantOperand(Object value, Attribute.Type type) {
+            this.value = value;
+            this.type = type;
+        }
+
+        public Object getValue() {
+            return value;
+        }
+
+        public Attribute.Type getType() {
+            return type;
+        }
+
+        @Override
+        public Object resolve(Map<String, Object> parameters) {
+            return this.value;
+        }
+
+        @Override
+        public boolean isValue() {
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return Attribute.Type.STRING.equals(this.type) ? "'" + this.value + "'" : String.valueOf(this.value);
+        }
+    }
+
+    /**
+     * Operand computed by a MATH operation on two operands, evaluated by the MongoDB using '$expr'. The division of
+     * two INT/LONG operands is truncated, as in Siddhi.
+     */
+    public static class MathOperand extends Operand {
+        private String operator;
+        private Operand leftOperand;
+        private Operand rightOperand;
+        private boolean integral;
+
+        public MathOperand(String operator, Operand leftOperand, Operand rightOperand, boolean integral) {
+            this.operator = operator;
+            this.leftOperand = leftOperand;
+            this.rightOperand = rightOperand;
+            this.integral = integral;
+        }
+
+        public String getOperator() {
+            return operator;
+        }
+
+        public Operand getLeftOperand() {
+            return leftOperand;
+        }
+
+        public Operand getRightOperand() {
+            return rightOperand;
+        }
+
+        public boolean isIntegral() {
+            return integral;
+        }
+
+        @Override
+        public Object resolve(Map<String, Object> parameters) {
+            throw new UnsupportedOperationException("MATH operation '" + this + "' is evaluated by the MongoDB.");
+        }
+
+        @Override
+        public Object toExpression(Map<String, Object> parameters) {
+            Object divisor = this.rightOperand.toExpression(parameters);
+            Object expression = new Document(this.operator, Arrays.asList(
+                    this.leftOperand.toExpression(parameters), divisor));
+            if (this.integral && MongoTableConstants.MONGO_DIVIDE.equals(this.operator)) {
+                expression = new Document(MongoTableConstants.MONGO_TRUNC, expression);
+            }
+            if (MongoTableConstants.MONGO_DIVIDE.equals(this.operator) ||
+                    MongoTableConstants.MONGO_MOD.equals(this.operator)) {
+                // A zero divisor fails the whole query on the server, hence it results in null instead.
+                return new Document("$cond", Arrays.asList(new Document("$eq", Arrays.asList(divisor, 0)), null,
+                        expression));
+            }
+            return expression;
+        }
+
+        @Override
+        public RowFunction toRowFunction(List<String> attributeNames) {
+            RowFunction left = this.leftOperand.toRowFunction(attributeNames);
+            RowFunction right = this.rightOperand.toRowFunction(attributeNames);
+            return (row, parameters) -> RowValues.evaluateMath(this.operator, left.apply(row, parameters),
+                    right.apply(row, parameters));
+        }
+
+        @Override
+        public String toString() {
+            return "{" + this.operator + ":[" + this.leftOperand + "," + this.rightOperand + "]}";
+        }
+    }
+
+    /**
+     * Operand building a regular expression from a stream variable or a constant. Values which are matched
+     * literally are escaped and wrapped with the given prefix and suffix, such as the anchors of the expression.
+     */
+    public static class RegexOperand extends Operand {
+        private Operand value;
+        private String prefix;
+        private String suffix;
+        private boolean literal;
+        private boolean caseInsensitive;
+        private volatile CompiledRegex compiledRegex;
+
+        public RegexOperand(Operand value, String prefix, String suffix, boolean literal, boolean caseInsensitive) {
+            this.value = value;
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.literal = literal;
+            this.caseInsensitive = caseInsensitive;
+        }
+
+        public Operand getValue() {
+            return value;
+        }
+
+        public boolean isCaseInsensitive() {
+            return caseInsensitive;
+        }
+
+        /**
+         * Method for checking whether the regular expression matches the whole value literally, which is the
+         * case for a case insensitive equality.
+         *
+         * @return true if the regular expression is an anchored literal.
+         */
+        public boolean isAnchoredLiteral() {
+            return this.literal && "^".equals(this.prefix) && "$".equals(this.suffix);
+        }
+
+        @Override
+        public Object resolve(Map<String, Object> parameters) {
+            String regex = String.valueOf(this.value.resolve(parameters));
+            return this.prefix + (this.literal ? MongoTableUtils.escapeRegex(regex) : regex) + this.suffix;
+        }
+
+        /**
+         * Method for compiling the regular expression for the runtime values of the stream variables. The last
+         * compiled pattern is reused while the regular expression does not change.
+         *
+         * @param parameters the runtime values of the stream variables, keyed by the stream variable ids.
+         * @return the compiled pattern.
+         */
+        public Pattern toPattern(Map<String, Object> parameters) {
+            String regex = (String) this.resolve(parameters);
+            CompiledRegex lastCompiledRegex = this.compiledRegex;
+            if (lastCompiledRegex != null && lastCompiledRegex.regex.equals(regex)) {
+                return lastCompiledRegex.pattern;
+            }
+            Pattern pattern = Pattern.compile(regex,
+                    this.caseInsensitive ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0);
+            this.compiledRegex = new CompiledRegex(regex, pattern);
+            return pattern;
+        }
+
+        @Override
+        public boolean isValue() {
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return "/" + this.prefix + this.value + this.suffix + "/" + (this.caseInsensitive ? "i" : "");
+        }
+    }
+
+    /**
+     * Denotes an operand compiled to a function over the records of the table.
+     */
+    @FunctionalInterface
+    public interface RowFunction {
+
+        /**
+         * Method for resolving the value of the operand for a record.
+         *
+         * @param row        the attribute values of the record.
+         * @param parameters the runtime values of the stream variables, keyed by the stream variable ids.
+         * @return the value of the operand, or {@link RowValues#MISSING} for a field which does not exist.
+         */
+        Object apply(Object[] row, Map<String, Object> parameters);
+    }
+
+    private static class CompiledRegex {
+        private final String regex;
+        private final Pattern pattern;
+
+        private CompiledRegex(String regex, Pattern pattern) {
+            this.regex = regex;
+            this.pattern = pattern;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.store.mongodb.condition;
+
+import java.util.Map;
+
+/**
+ * Denotes a condition compiled to a Java predicate over the records of the table, in the attribute order of the
+ * table definition. The predicate has the semantics of the MongoDB filter built for the same condition, so that
+ * the records of a local copy of the table can be matched without a round trip to the MongoDB.
+ */
+@FunctionalInterface
+public interface RowPredicate {
+
+    /**
+     * Method for evaluating the condition on a record.
+     *
+     * @param row        the attribute values of the record.
+     * @param parameters the runtime values of the stream variables, keyed by the stream variable ids.
+     * @return true if the MongoDB filter would match the document of the record.
+     */
+    boolean test(Object[] row, Map<String, Object> parameters);
+}
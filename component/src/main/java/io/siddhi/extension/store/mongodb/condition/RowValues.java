@@ -0,0 +1,255 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.store.mongodb.condition;
+
+import com.mongodb.client.model.Collation;
+import com.mongodb.client.model.CollationStrength;
+
+import java.text.Collator;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Class which contains the comparison and arithmetic semantics of the MongoDB on the Java values of the records,
+ * used by the {@link RowPredicate}s compiled for the conditions.
+ */
+public class RowValues {
+
+    /**
+     * Denotes the value of a field which does not exist in the document, as opposed to a field set to null.
+     */
+    public static final Object MISSING = new Object() {
+        @Override
+        public String toString() {
+            return "MISSING";
+        }
+    };
+
+    /**
+     * Denotes the result of comparing values of different types, which never match a query comparison.
+     */
+    static final int NOT_COMPARABLE = Integer.MIN_VALUE;
+
+    private RowValues() {
+        //Prevent Initialization.
+    }
+
+    /**
+     * Method for creating the comparator of string values for a collation, which is used by MongoDB for all the
+     * string comparisons of the condition except regular expressions.
+     *
+     * @param collation the collation of the condition.
+     * @return the comparator or null if strings are compared by their code points.
+     */
+    public static Comparator<String> createStringComparator(Collation collation) {
+        if (collation == null || collation.getLocale() == null || "simple".equals(collation.getLocale())) {
+            return null;
+        }
+        Collator collator = Collator.getInstance(Locale.forLanguageTag(collation.getLocale().replace('_', '-')));
+        CollationStrength strength = collation.getStrength();
+        if (strength == CollationStrength.PRIMARY) {
+            collator.setStrength(Collator.PRIMARY);
+        } else if (strength == CollationStrength.SECONDARY) {
+            collator.setStrength(Collator.SECONDARY);
+        } else if (strength == CollationStrength.QUATERNARY || strength == CollationStrength.IDENTICAL) {
+            collator.setStrength(Collator.IDENTICAL);
+        } else {
+            collator.setStrength(Collator.TERTIARY);
+        }
+        return collator::compare;
+    }
+
+    /**
+     * Method for resolving a field of a record, using the dot notation for the nested fields of object attributes.
+     *
+     * @param row            the attribute values of the record.
+     * @param attributeIndex the index of the attribute containing the field, or -1 if there is no such attribute.
+     * @param nestedPath     the path of the nested field relative to the attribute.
+     * @return the value of the field or {@link #MISSING} if the field does not exist.
+     */
+    static Object resolveField(Object[] row, int attributeIndex, String[] nestedPath) {
+        if (attributeIndex < 0 || attributeIndex >= row.length) {
+            return MISSING;
+        }
+        Object value = row[attributeIndex];
+        for (String segment : nestedPath) {
+            if (!(value instanceof Map) || !((Map<?, ?>) value).containsKey(segment)) {
+                return MISSING;
+            }
+            value = ((Map<?, ?>) value).get(segment);
+        }
+        return value;
+    }
+
+    /**
+     * Method for comparing a field with a value as done by the query operators '$eq', '$ne', '$gt', '$gte', '$lt'
+     * and '$lte', where values of different types never match and null matches the missing fields as well.
+     *
+     * @return true if the field matches the operator.
+     */
+    static boolean matches(String operator, Object fieldValue, Object value, Comparator<String> stringComparator) {
+        boolean fieldIsNull = fieldValue == null || fieldValue == MISSING;
+        if (value == null || fieldIsNull) {
+            boolean bothNull = value == null && fieldIsNull;
+            switch (operator) {
+                case FieldFilterNode.EQUAL:
+                case FieldFilterNode.GREATER_THAN_EQUAL:
+                case FieldFilterNode.LESS_THAN_EQUAL:
+                    return bothNull;
+                case FieldFilterNode.NOT_EQUAL:
+                    return !bothNull;
+                default:
+                    return false;
+            }
+        }
+        int comparison = compareSameType(fieldValue, value, stringComparator);
+        switch (operator) {
+            case FieldFilterNode.EQUAL:
+                return comparison == 0;
+            case FieldFilterNode.NOT_EQUAL:
+                return comparison != 0;
+            case FieldFilterNode.GREATER_THAN:
+                return comparison != NOT_COMPARABLE && comparison > 0;
+            case FieldFilterNode.GREATER_THAN_EQUAL:
+                return comparison != NOT_COMPARABLE && comparison >= 0;
+            case FieldFilterNode.LESS_THAN:
+                return comparison != NOT_COMPARABLE && comparison < 0;
+            case FieldFilterNode.LESS_THAN_EQUAL:
+                return comparison != NOT_COMPARABLE && comparison <= 0;
+            default:
+                throw new IllegalArgumentException("Unknown comparison operator '" + operator + "'.");
+        }
+    }
+
+    /**
+     * Method for comparing two values as done by the comparison operators of aggregation expressions, which order
+     * the values of different types by the BSON comparison order instead of failing the comparison.
+     *
+     * @return a negative integer, zero or a positive integer as the first value is less than, equal to or greater
+     * than the second value.
+     */
+    static int compareTotal(Object first, Object second, Comparator<String> stringComparator) {
+        int firstRank = typeRank(first);
+        int secondRank = typeRank(second);
+        if (firstRank != secondRank) {
+            return Integer.compare(firstRank, secondRank);
+        } else if (first == null || first == MISSING) {
+            return 0;
+        }
+        int comparison = compareSameType(first, second, stringComparator);
+        return comparison == NOT_COMPARABLE ? 0 : comparison;
+    }
+
+    private static int typeRank(Object value) {
+        if (value == MISSING) {
+            return 0;
+        } else if (value == null) {
+            return 1;
+        } else if (value instanceof Number) {
+            return 2;
+        } else if (value instanceof String) {
+            return 3;
+        } else if (value instanceof Map) {
+            return 4;
+        } else if (value instanceof List) {
+            return 5;
+        } else if (value instanceof byte[]) {
+            return 6;
+        } else if (value instanceof Boolean) {
+            return 8;
+        } else if (value instanceof Date) {
+            return 9;
+        }
+        return 7;
+    }
+
+    private static int compareSameType(Object first, Object second, Comparator<String> stringComparator) {
+        if (first instanceof Number && second instanceof Number) {
+            return compareNumbers((Number) first, (Number) second);
+        } else if (first instanceof String && second instanceof String) {
+            int comparison = stringComparator == null ? ((String) first).compareTo((String) second) :
+                    stringComparator.compare((String) first, (String) second);
+            return Integer.signum(comparison);
+        } else if (first instanceof Boolean && second instanceof Boolean) {
+            return Boolean.compare((Boolean) first, (Boolean) second);
+        } else if (first instanceof Date && second instanceof Date) {
+            return ((Date) first).compareTo((Date) second);
+        } else if (typeRank(first) == typeRank(second) && first.equals(second)) {
+            return 0;
+        }
+        return NOT_COMPARABLE;
+    }
+
+    private static int compareNumbers(Number first, Number second) {
+        if (isIntegral(first) && isIntegral(second)) {
+            return Long.compare(first.longValue(), second.longValue());
+        }
+        double firstValue = first.doubleValue();
+        double secondValue = second.doubleValue();
+        if (Double.isNaN(firstValue) || Double.isNaN(secondValue)) {
+            // NaN is equal to itself and less than any other number in the BSON comparison order.
+            return Boolean.compare(!Double.isNaN(firstValue), !Double.isNaN(secondValue));
+        }
+        return Double.compare(firstValue, secondValue) == 0 ? 0 : (firstValue < secondValue ? -1 : 1);
+    }
+
+    private static boolean isIntegral(Number value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+
+    /**
+     * Method for evaluating an arithmetic operator of an aggregation expression. Null and missing operands result
+     * in null, and integral operands keep integral results, hence '$divide' truncates their quotient as Siddhi.
+     *
+     * @return the result of the operation, or null if the operation is undefined such as a division by zero.
+     */
+    static Object evaluateMath(String operator, Object first, Object second) {
+        if (!(first instanceof Number) || !(second instanceof Number)) {
+            return null;
+        }
+        Number firstValue = (Number) first;
+        Number secondValue = (Number) second;
+        boolean integral = isIntegral(firstValue) && isIntegral(secondValue);
+        switch (operator) {
+            case "$add":
+                return integral ? (Object) (firstValue.longValue() + secondValue.longValue()) :
+                        (Object) (firstValue.doubleValue() + secondValue.doubleValue());
+            case "$subtract":
+                return integral ? (Object) (firstValue.longValue() - secondValue.longValue()) :
+                        (Object) (firstValue.doubleValue() - secondValue.doubleValue());
+            case "$multiply":
+                return integral ? (Object) (firstValue.longValue() * secondValue.longValue()) :
+                        (Object) (firstValue.doubleValue() * secondValue.doubleValue());
+            case "$divide":
+                if (integral) {
+                    return secondValue.longValue() == 0 ? null : firstValue.longValue() / secondValue.longValue();
+                }
+                return secondValue.doubleValue() == 0 ? null : firstValue.doubleValue() / secondValue.doubleValue();
+            case "$mod":
+                if (integral) {
+                    return secondValue.longValue() == 0 ? null : firstValue.longValue() % secondValue.longValue();
+                }
+                return secondValue.doubleValue() == 0 ? null : firstValue.doubleValue() % secondValue.doubleValue();
+            default:
+                throw new IllegalArgumentException("Unknown arithmetic operator '" + operator + "'.");
+        }
+    }
+}
@@ -24,12 +24,49 @@ public class MongoTableConstants {
 
     //Annotation field names
     public static final String ANNOTATION_ELEMENT_URI = "mongodb.uri";
+    public static final String ANNOTATION_ELEMENT_SHARD_URIS = "shard.uris";
     public static final String ANNOTATION_ELEMENT_COLLECTION_NAME = "collection.name";
+    public static final String ANNOTATION_ELEMENT_COLLECTION_TYPE = "collection.type";
+    public static final String ANNOTATION_ELEMENT_COLLECTION_PARTITION_BY = "collection.partition.by";
+    public static final String ANNOTATION_ELEMENT_TIME_FIELD = "time.field";
+    public static final String ANNOTATION_ELEMENT_META_FIELD = "meta.field";
+    public static final String ANNOTATION_ELEMENT_GRANULARITY = "granularity";
+    public static final String ANNOTATION_ELEMENT_CAPPED_SIZE = "capped.size";
+    public static final String ANNOTATION_ELEMENT_CAPPED_MAX_DOCS = "capped.max.docs";
+    public static final String ANNOTATION_ELEMENT_CAPPED_TAILABLE = "capped.tailable";
+    public static final String ANNOTATION_ELEMENT_BUCKET_KEY = "bucket.key";
+    public static final String ANNOTATION_ELEMENT_BUCKET_INTERVAL = "bucket.interval";
+    public static final String ANNOTATION_ELEMENT_BUCKET_MAX_EVENTS = "bucket.max.events";
+    public static final String ANNOTATION_ELEMENT_PARTITION_FIELD = "partition.field";
+    public static final String ANNOTATION_ELEMENT_PARTITION_GRANULARITY = "partition.granularity";
     public static final String ANNOTATION_ELEMENT_KEYSTORE = "key.store";
     public static final String ANNOTATION_ELEMENT_STOREPASS = "key.store.password";
     public static final String ANNOTATION_ELEMENT_TRUSTSTORE = "trust.store";
     public static final String ANNOTATION_ELEMENT_TRUSTSTOREPASS = "trust.store.password";
     public static final String ANNOTATION_ELEMENT_SECURE_CONNECTION = "secure.connection";
+    public static final String ANNOTATION_ELEMENT_ASYNC_INDEX_CREATION = "async.index.creation";
+    public static final String ANNOTATION_ELEMENT_INDEX_READINESS_TIMEOUT = "index.readiness.timeout";
+    public static final String ANNOTATION_ELEMENT_INDEX_RECONCILE = "index.reconcile";
+    public static final String ANNOTATION_ELEMENT_INDEX_DROP_REDUNDANT = "index.drop.redundant";
+    public static final String ANNOTATION_ELEMENT_INDEX_ADVISOR = "index.advisor";
+    public static final String ANNOTATION_ELEMENT_INDEX_ADVISOR_EXPLAIN = "index.advisor.explain";
+    public static final String ANNOTATION_ELEMENT_QUERY_STATS = "query.stats";
+    public static final String ANNOTATION_ELEMENT_QUERY_STATS_SAMPLE_INTERVAL = "query.stats.sample.interval";
+    public static final String ANNOTATION_ELEMENT_AUTO_INDEX = "auto.index";
+    public static final String ANNOTATION_ELEMENT_AUTO_INDEX_MIN_CALLS = "auto.index.min.calls";
+    public static final String ANNOTATION_ELEMENT_AUTO_INDEX_SCAN_RATIO = "auto.index.scan.ratio";
+    public static final String ANNOTATION_ELEMENT_QUERY_HINT = "query.hint";
+    public static final String ANNOTATION_ELEMENT_QUERY_MAX_TIME = "query.max.time";
+    public static final String ANNOTATION_ELEMENT_COLLATION = "collation";
+    public static final String ANNOTATION_ELEMENT_VERSION_FIELD = "version.field";
+    public static final String ANNOTATION_ELEMENT_DATE_FIELDS = "date.fields";
+    public static final String ANNOTATION_ELEMENT_PRIMARY_KEY_AS_ID = "primary.key.as.id";
+    public static final String ANNOTATION_ELEMENT_RETENTION_FIELD = "retention.field";
+    public static final String ANNOTATION_ELEMENT_RETENTION_PERIOD = "retention.period";
+    public static final String ANNOTATION_ELEMENT_RETENTION_INTERVAL = "retention.interval";
+    public static final String ANNOTATION_ELEMENT_RETENTION_CHUNK_SIZE = "retention.chunk.size";
+    public static final String ANNOTATION_ELEMENT_RETENTION_CHUNK_LATENCY = "retention.chunk.latency";
+    public static final String ANNOTATION_ELEMENT_RETENTION_MAX_REPLICATION_LAG = "retention.max.replication.lag";
 
     //Mongo Operators
     public static final String MONGO_COMPARE_LESS_THAN = "$lt";
@@ -38,28 +75,61 @@ public class MongoTableConstants {
     public static final String MONGO_COMPARE_GREATER_THAN_EQUAL = "$gte";
     public static final String MONGO_COMPARE_EQUAL = "$eq";
     public static final String MONGO_COMPARE_NOT_EQUAL = "$ne";
+    public static final String MONGO_ADD = "$add";
+    public static final String MONGO_SUBTRACT = "$subtract";
+    public static final String MONGO_MULTIPLY = "$multiply";
+    public static final String MONGO_DIVIDE = "$divide";
+    public static final String MONGO_MOD = "$mod";
+    public static final String MONGO_TRUNC = "$trunc";
+
+    //Mongo Update Operators
+    public static final String MONGO_ID = "_id";
+    public static final String MONGO_EXPR = "$expr";
+    public static final String MONGO_SET = "$set";
+    public static final String MONGO_SET_ON_INSERT = "$setOnInsert";
+    public static final String MONGO_INC = "$inc";
+    public static final String MONGO_MUL = "$mul";
+    public static final String MONGO_MAX = "$max";
+    public static final String MONGO_MIN = "$min";
     public static final String MONGO_NOT = "$not";
+    public static final String MONGO_AND = "$and";
+
+    //Collection types
+    public static final String COLLECTION_TYPE_STANDARD = "standard";
+    public static final String COLLECTION_TYPE_TIMESERIES = "timeseries";
+    public static final String COLLECTION_TYPE_BUCKET = "bucket";
+
+    //Maximum number of tailable cursors kept open for the finds of a capped collection
+    public static final int TAILABLE_CURSORS_MAX = 16;
 
-    //Regex for comparing operands
-    public static final String REG_EXPRESSION = "\\{.*}$";
-    public static final String REG_SIMPLE_EXPRESSION = "^\\{(\\S*):\\{.*}}$";
-    public static final String REG_STREAMVAR_OR_CONST = "^strVar\\d*|^const\\d*";
+    //Fields of the bucket documents
+    public static final String BUCKET_FIELD_START = "bucketStart";
+    public static final String BUCKET_FIELD_COUNT = "eventCount";
+    public static final String BUCKET_FIELD_EVENTS = "events";
+
+    //Regex for index definitions
     public static final String REG_INDEX_BY = "^(\\S*)(\\s1|\\s-1)?(\\s\\{.*})?$";
     public static final String REG_INDEX_BY_NEW_OPTIONS = "^\\{.*\\}$";
 
-    //Mongo filters for condition builder
-    public static final String MONGO_AND_FILTER = "{$and:[{{LEFT_OPERAND}},{{RIGHT_OPERAND}}]}";
-    public static final String MONGO_OR_FILTER = "{$or:[{{LEFT_OPERAND}},{{RIGHT_OPERAND}}]}";
-    public static final String MONGO_NOT_FILTER = "{{{FIELD_NAME}}:{{OPERAND}}}";
-    public static final String MONGO_COMPARE_FILTER = "{{{LEFT_OPERAND}}:{{{COMPARE_OPERATOR}}:{{RIGHT_OPERAND}}}}";
-    public static final String MONGO_IS_NULL_FILTER = "{{{OPERAND}}:{$eq:null}}";
+    //Functions pushed down to the MongoDB
+    public static final String FUNCTION_CONTAINS = "str:contains";
+    public static final String FUNCTION_STARTS_WITH = "str:startswith";
+    public static final String FUNCTION_ENDS_WITH = "str:endswith";
+    public static final String FUNCTION_EQUALS_IGNORE_CASE = "str:equalsignorecase";
+    public static final String FUNCTION_REGEX_MATCHES = "regex:matches";
+    public static final String FUNCTION_NESTED_FIELD = "mongodb:field";
+    public static final String CASE_INSENSITIVE_LOCALE = "en";
+
+    public static final int MONGO_DUPLICATE_KEY_ERROR_CODE = 11000;
+
+    //Limits of the filters combined for a batch of events
+    public static final int BSON_ELEMENT_OVERHEAD = 8;
+    public static final int COMBINED_FILTER_MAX_VALUES = 1000;
+    public static final int COMBINED_FILTER_MAX_SIZE = 8 * 1024 * 1024;
 
-    //Placeholders for condition replacements
-    public static final String PLACEHOLDER_LEFT_OPERAND = "{{LEFT_OPERAND}}";
-    public static final String PLACEHOLDER_RIGHT_OPERAND = "{{RIGHT_OPERAND}}";
-    public static final String PLACEHOLDER_OPERAND = "{{OPERAND}}";
-    public static final String PLACEHOLDER_FIELD_NAME = "{{FIELD_NAME}}";
-    public static final String PLACEHOLDER_COMPARE_OPERATOR = "{{COMPARE_OPERATOR}}";
+    //Functions compiled to the MongoDB update operators
+    public static final String FUNCTION_MAXIMUM = "maximum";
+    public static final String FUNCTION_MINIMUM = "minimum";
 
     public static final String CONNECTIONS_PER_HOST = "connectionsPerHost";
     public static final String HEARTBEAT_SOCKET_TIMEOUT = "heartbeatSocketTimeout";
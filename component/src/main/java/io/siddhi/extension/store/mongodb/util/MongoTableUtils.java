@@ -17,7 +17,6 @@
  */
 package io.siddhi.extension.store.mongodb.util;
 
-import com.mongodb.DBObject;
 import com.mongodb.MongoClientOptions;
 import com.mongodb.ReadConcern;
 import com.mongodb.ReadConcernLevel;
@@ -34,9 +33,12 @@ import com.mongodb.client.model.IndexOptions;
 import io.siddhi.core.exception.SiddhiAppCreationException;
 import io.siddhi.core.util.config.ConfigReader;
 import io.siddhi.extension.store.mongodb.MongoCompiledCondition;
+import io.siddhi.extension.store.mongodb.condition.FieldFilterNode;
+import io.siddhi.extension.store.mongodb.condition.FilterNode;
+import io.siddhi.extension.store.mongodb.condition.LogicalFilterNode;
+import io.siddhi.extension.store.mongodb.condition.Operand;
 import io.siddhi.extension.store.mongodb.exception.MongoTableException;
 import io.siddhi.query.api.annotation.Annotation;
-import io.siddhi.query.api.definition.Attribute;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.bson.Document;
@@ -54,10 +56,15 @@ import java.security.NoSuchAlgorithmException;
 import java.security.UnrecoverableKeyException;
 import java.security.cert.CertificateException;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Date;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
@@ -100,7 +107,7 @@ public class MongoTableUtils {
         Document primaryKeyIndex = new Document();
         primaryKey.getElements().forEach(
                 element -> {
-                    if (!isEmpty(element.getValue()) && attributeNames.contains(element.getValue())) {
+                    if (!isEmpty(element.getValue()) && isAttributeField(element.getValue(), attributeNames)) {
                         primaryKeyIndex.append(element.getValue(), 1);
                     } else {
                         throw new SiddhiAppCreationException("Annotation '" + primaryKey.getName() + "' contains " +
@@ -112,6 +119,24 @@ public class MongoTableUtils {
         return new IndexModel(primaryKeyIndex, new IndexOptions().unique(true));
     }
 
+    /**
+     * Utility method which can be used to check whether a field refers to an attribute of the table, or to a nested
+     * field of an object attribute using the dot notation, such as 'properties.model'.
+     *
+     * @param field          the field to be checked.
+     * @param attributeNames List containing names of the attributes.
+     * @return true if the field refers to an attribute or a nested field of an attribute.
+     */
+    public static boolean isAttributeField(String field, List<String> attributeNames) {
+        String[] segments = field.split("\\.", -1);
+        for (String segment : segments) {
+            if (segment.isEmpty()) {
+                return false;
+            }
+        }
+        return attributeNames.contains(segments[0]);
+    }
+
     public static List<IndexModel> extractIndexModels(Annotation indices, List<String> attributeNames,
                                                       String tableName) {
         if (indices == null) {
@@ -121,7 +146,7 @@ public class MongoTableUtils {
         Pattern indexBy = Pattern.compile(MongoTableConstants.REG_INDEX_BY);
         return indices.getElements().stream().map(index -> {
             Matcher matcher = indexBy.matcher(index.getValue());
-            if (matcher.matches() && attributeNames.contains(matcher.group(1))) {
+            if (matcher.matches() && isAttributeField(matcher.group(1), attributeNames)) {
                 Map<String, Integer> indexFields = new HashMap<>();
                 if (matcher.groupCount() == 4) {
                     indexFields.put(matcher.group(1), Integer.parseInt(matcher.group(2)));
@@ -174,7 +199,8 @@ public class MongoTableUtils {
                 indexOptions = indexAnnotation.getElements().get(elementsSize - 1).getValue();
                 indexAnnotation.getElements().remove(elementsSize - 1);
             }
-            Map<String, Integer> indexFields = new HashMap<>();
+            // The order of the fields is kept, since it defines the prefixes served by a compound index.
+            Map<String, Integer> indexFields = new LinkedHashMap<>();
             indexAnnotation.getElements().forEach((indexElement) -> {
                 String[] splitFields = indexElement.getValue().split(":");
                 if (splitFields.length != 1 && splitFields.length != 2) {
@@ -182,7 +208,7 @@ public class MongoTableUtils {
                             "' contains illegal value : '" + indexElement.getValue() +
                             "'. Please check your query and try again.");
                 } else {
-                    if (!attributeNames.contains(splitFields[0])) {
+                    if (!isAttributeField(splitFields[0], attributeNames)) {
                         throw new SiddhiAppCreationException("Annotation 'Index' for table '" + tableName +
                                 "' contains unknown attributes : '" + indexElement.getValue() + "'. " +
                                 "Please check your query and try again.");
@@ -284,51 +310,7 @@ public class MongoTableUtils {
                             indexOptions.partialFilterExpression((Bson) value);
                             break;
                         case "collation":
-                            DBObject collationOptions = (DBObject) value;
-                            Collation.Builder builder = Collation.builder();
-                            for (String collationKey : collationOptions.keySet()) {
-                                String collationObj = value.toString();
-                                switch (collationKey) {
-                                    case "locale":
-                                        builder.locale(collationObj);
-                                        break;
-                                    case "caseLevel":
-                                        builder.caseLevel(Boolean.parseBoolean(collationObj));
-                                        break;
-                                    case "caseFirst":
-                                        builder.collationCaseFirst(CollationCaseFirst.fromString(collationObj));
-                                        break;
-                                    case "strength":
-                                        builder.collationStrength(CollationStrength.valueOf(collationObj));
-                                        break;
-                                    case "numericOrdering":
-                                        builder.numericOrdering(Boolean.parseBoolean(collationObj));
-                                        break;
-                                    case "normalization":
-                                        builder.normalization(Boolean.parseBoolean(collationObj));
-                                        break;
-                                    case "backwards":
-                                        builder.backwards(Boolean.parseBoolean(collationObj));
-                                        break;
-                                    case "alternate":
-                                        builder.collationAlternate(CollationAlternate.fromString(collationObj));
-                                        break;
-                                    case "maxVariable":
-                                        builder.collationMaxVariable(CollationMaxVariable.fromString(collationObj));
-                                        break;
-                                    default:
-                                        log.warn("Annotation 'IndexBy' for the table '" + tableName + "' contains " +
-                                                "unknown 'Collation' Option key : '" + collationKey + "'. Please " +
-                                                "check your query and try again.");
-                                        break;
-                                }
-                            }
-                            if (builder.build().getLocale() != null) {
-                                indexOptions.collation(builder.build());
-                            } else {
-                                throw new MongoTableException("Annotation 'IndexBy' for the table '" + tableName + "'" +
-                                        " do not contain option for locale. Please check your query and try again.");
-                            }
+                            indexOptions.collation(createCollation((Document) value, "IndexBy", tableName));
                             break;
                         case "storageEngine":
                             indexOptions.storageEngine((Bson) value);
@@ -339,7 +321,7 @@ public class MongoTableUtils {
                             break;
                     }
                 }
-            } catch (JsonParseException | NumberFormatException e) {
+            } catch (JsonParseException | IllegalArgumentException | ClassCastException e) {
                 throw new MongoTableException("Annotation 'IndexBy' for the table '" + tableName + "' contains " +
                         "illegal value(s) for index option. Please check your query and try again.", e);
             }
@@ -347,6 +329,63 @@ public class MongoTableUtils {
         }
     }
 
+    /**
+     * Utility method which can be used to create a collation from the collation options of an annotation, in the
+     * format of the MongoDB collation document such as '{locale:"en", strength:2}'.
+     *
+     * @param collationOptions the collation options.
+     * @param annotationName   the name of the annotation which contains the options, used in the error messages.
+     * @param tableName        the name of the table, used in the error messages.
+     * @return the collation.
+     * @throws IllegalArgumentException if an option contains an illegal value.
+     */
+    public static Collation createCollation(Document collationOptions, String annotationName, String tableName) {
+        Collation.Builder builder = Collation.builder();
+        for (Map.Entry<String, Object> collationEntry : collationOptions.entrySet()) {
+            String collationValue = String.valueOf(collationEntry.getValue());
+            switch (collationEntry.getKey()) {
+                case "locale":
+                    builder.locale(collationValue);
+                    break;
+                case "caseLevel":
+                    builder.caseLevel(Boolean.parseBoolean(collationValue));
+                    break;
+                case "caseFirst":
+                    builder.collationCaseFirst(CollationCaseFirst.fromString(collationValue));
+                    break;
+                case "strength":
+                    builder.collationStrength(CollationStrength.fromInt(Integer.parseInt(collationValue)));
+                    break;
+                case "numericOrdering":
+                    builder.numericOrdering(Boolean.parseBoolean(collationValue));
+                    break;
+                case "normalization":
+                    builder.normalization(Boolean.parseBoolean(collationValue));
+                    break;
+                case "backwards":
+                    builder.backwards(Boolean.parseBoolean(collationValue));
+                    break;
+                case "alternate":
+                    builder.collationAlternate(CollationAlternate.fromString(collationValue));
+                    break;
+                case "maxVariable":
+                    builder.collationMaxVariable(CollationMaxVariable.fromString(collationValue));
+                    break;
+                default:
+                    log.warn("Annotation '" + annotationName + "' for the table '" + tableName + "' contains " +
+                            "unknown 'Collation' Option key : '" + collationEntry.getKey() + "'. Please check your " +
+                            "query and try again.");
+                    break;
+            }
+        }
+        Collation collation = builder.build();
+        if (collation.getLocale() == null) {
+            throw new MongoTableException("Annotation '" + annotationName + "' for the table '" + tableName + "' " +
+                    "do not contain option for locale. Please check your query and try again.");
+        }
+        return collation;
+    }
+
     /**
      * Utility method which can be used to resolve the condition with the runtime values and return a Document
      * describing the filter.
@@ -358,26 +397,190 @@ public class MongoTableUtils {
      */
     public static Document resolveCondition(MongoCompiledCondition compiledCondition,
                                             Map<String, Object> conditionParameterMap) {
-        Map<String, Object> parameters = compiledCondition.getPlaceholders();
-        String compiledQuery = compiledCondition.getCompiledQuery();
-        if (compiledQuery.equalsIgnoreCase("true")) {
-            return new Document();
+        Document filter = resolveAttributeCondition(compiledCondition, conditionParameterMap);
+        if (compiledCondition.getPrimaryKeyFields() != null) {
+            filter = mapPrimaryKeyFields(filter, compiledCondition.getPrimaryKeyFields());
+        }
+        if (log.isDebugEnabled()) {
+            log.debug("The final compiled query : '" + filter.toJson() + "'");
+        }
+        return filter;
+    }
+
+    /**
+     * Utility method which can be used to resolve the condition with the runtime values, keeping the names of the
+     * attributes as the fields of the filter even when the primary key is stored as '_id'.
+     *
+     * @param compiledCondition     the compiled condition which was built during compile time and now is being provided
+     *                              by the Siddhi runtime.
+     * @param conditionParameterMap the map which contains the runtime value(s) for the condition.
+     * @return Document.
+     */
+    public static Document resolveAttributeCondition(MongoCompiledCondition compiledCondition,
+                                                     Map<String, Object> conditionParameterMap) {
+        Document filter = compiledCondition.getFilter().toDocument(conditionParameterMap);
+        if (!compiledCondition.getDateFields().isEmpty()) {
+            filter = convertDateFields(filter, compiledCondition.getDateFields());
+        }
+        return filter;
+    }
+
+    /**
+     * Utility method for mapping the primary key fields of a resolved filter to '_id'. A single field primary key
+     * is stored as '_id' itself, while the fields of a composite primary key are stored in an embedded '_id'
+     * document. Equalities on all the fields of a composite primary key are collapsed into an equality on the
+     * whole '_id' document, which is the only form served by the '_id' index.
+     *
+     * @param filter           the resolved filter.
+     * @param primaryKeyFields the fields of the primary key, in the order of the embedded '_id' document.
+     * @return the mapped filter.
+     */
+    public static Document mapPrimaryKeyFields(Document filter, List<String> primaryKeyFields) {
+        Document mappedFilter = new Document();
+        boolean collapsed = primaryKeyFields.size() > 1 && primaryKeyFields.stream().allMatch(field ->
+                filter.get(field) instanceof Document && ((Document) filter.get(field)).size() == 1 &&
+                        ((Document) filter.get(field)).get(FieldFilterNode.EQUAL) != null);
+        if (collapsed) {
+            Document id = new Document();
+            primaryKeyFields.forEach(field ->
+                    id.append(field, ((Document) filter.get(field)).get(FieldFilterNode.EQUAL)));
+            mappedFilter.append(MongoTableConstants.MONGO_ID, new Document(FieldFilterNode.EQUAL, id));
         }
-        for (Map.Entry<String, Object> entry : parameters.entrySet()) {
-            Object parameter = entry.getValue();
-            Attribute variable = (Attribute) parameter;
-            if (variable.getType().equals(Attribute.Type.STRING)) {
-                compiledQuery = compiledQuery.replaceAll(entry.getKey(), "\"" +
-                        conditionParameterMap.get(variable.getName()).toString() + "\"");
+        for (Map.Entry<String, Object> entry : filter.entrySet()) {
+            String field = entry.getKey();
+            Object value = entry.getValue();
+            if (collapsed && primaryKeyFields.contains(field)) {
+                continue;
+            } else if (MongoTableConstants.MONGO_EXPR.equals(field)) {
+                value = mapExpressionFields(value, primaryKeyFields);
+            } else if (field.startsWith("$") && value instanceof List) {
+                value = ((List<?>) value).stream().map(nestedFilter -> nestedFilter instanceof Document ?
+                        mapPrimaryKeyFields((Document) nestedFilter, primaryKeyFields) : nestedFilter)
+                        .collect(Collectors.toList());
             } else {
-                compiledQuery = compiledQuery.replaceAll(entry.getKey(),
-                        conditionParameterMap.get(variable.getName()).toString());
+                field = mapPrimaryKeyField(field, primaryKeyFields);
             }
+            mappedFilter.append(field, value);
         }
-        if (log.isDebugEnabled()) {
-            log.debug("The final compiled query : '" + compiledQuery + "'");
+        return mappedFilter;
+    }
+
+    /**
+     * Utility method for finding the operand binding a field of a condition to a single value, which is an equality
+     * of the field with a stream variable or a constant, alone or joined with the other predicates by an AND
+     * operation.
+     *
+     * @param filter the filter built for the condition.
+     * @param field  the field.
+     * @return the operand or null if the condition does not bind the field to a single value.
+     */
+    public static Operand findBoundOperand(FilterNode filter, String field) {
+        List<FilterNode> nodes = filter instanceof LogicalFilterNode &&
+                ((LogicalFilterNode) filter).getType() == LogicalFilterNode.Type.AND ?
+                ((LogicalFilterNode) filter).getChildren() : Collections.singletonList(filter);
+        for (FilterNode node : nodes) {
+            if (node instanceof FieldFilterNode && !((FieldFilterNode) node).isNegated() &&
+                    field.equals(((FieldFilterNode) node).getField())) {
+                Object operand = ((FieldFilterNode) node).getPredicates().get(FieldFilterNode.EQUAL);
+                if (operand instanceof Operand && ((Operand) operand).isValue() &&
+                        !(operand instanceof Operand.RegexOperand)) {
+                    return (Operand) operand;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Utility method for mapping the values of a record to the fields of the stored document, where the values of
+     * the primary key are stored as '_id'.
+     *
+     * @param values           the values of the record, keyed by the attribute names.
+     * @param primaryKeyFields the fields of the primary key, in the order of the embedded '_id' document.
+     * @return the document.
+     */
+    public static Document mapPrimaryKeyValues(Map<String, Object> values, List<String> primaryKeyFields) {
+        Document document = new Document();
+        if (primaryKeyFields.size() == 1) {
+            document.append(MongoTableConstants.MONGO_ID, values.get(primaryKeyFields.get(0)));
+        } else {
+            Document id = new Document();
+            primaryKeyFields.forEach(field -> id.append(field, values.get(field)));
+            document.append(MongoTableConstants.MONGO_ID, id);
+        }
+        values.forEach((field, value) -> {
+            if (!primaryKeyFields.contains(field)) {
+                document.append(field, value);
+            }
+        });
+        return document;
+    }
+
+    private static String mapPrimaryKeyField(String field, List<String> primaryKeyFields) {
+        int separatorIndex = field.indexOf('.');
+        String attributeName = separatorIndex < 0 ? field : field.substring(0, separatorIndex);
+        if (!primaryKeyFields.contains(attributeName)) {
+            return field;
+        }
+        return primaryKeyFields.size() == 1 ? MongoTableConstants.MONGO_ID + field.substring(attributeName.length()) :
+                MongoTableConstants.MONGO_ID + "." + field;
+    }
+
+    private static Object mapExpressionFields(Object expression, List<String> primaryKeyFields) {
+        if (expression instanceof String && ((String) expression).startsWith("$") &&
+                !((String) expression).startsWith("$$")) {
+            return "$" + mapPrimaryKeyField(((String) expression).substring(1), primaryKeyFields);
+        } else if (expression instanceof Document && !((Document) expression).containsKey("$literal")) {
+            Document mappedExpression = new Document();
+            ((Document) expression).forEach((operator, operands) ->
+                    mappedExpression.append(operator, mapExpressionFields(operands, primaryKeyFields)));
+            return mappedExpression;
+        } else if (expression instanceof List) {
+            return ((List<?>) expression).stream().map(operand -> mapExpressionFields(operand, primaryKeyFields))
+                    .collect(Collectors.toList());
+        }
+        return expression;
+    }
+
+    /**
+     * Utility method which can be used to escape the metacharacters of a value which should be matched literally
+     * by a regular expression. The characters are escaped individually rather than quoted, so that MongoDB can
+     * still derive index bounds from anchored prefixes.
+     *
+     * @param value the value to be matched literally.
+     * @return the escaped value.
+     */
+    public static String escapeRegex(String value) {
+        StringBuilder escapedValue = new StringBuilder();
+        for (char character : value.toCharArray()) {
+            if ("\\^$.|?*+()[]{}-".indexOf(character) >= 0) {
+                escapedValue.append('\\');
+            }
+            escapedValue.append(character);
+        }
+        return escapedValue.toString();
+    }
+
+    /**
+     * Utility method which can be used to read a numeric element of the store annotation.
+     *
+     * @param storeAnnotation the store annotation which contains the element.
+     * @param elementName     the name of the element.
+     * @param defaultValue    the value to be used when the element is not defined.
+     * @return the value of the element.
+     */
+    public static long extractLongElement(Annotation storeAnnotation, String elementName, long defaultValue) {
+        String value = storeAnnotation.getElement(elementName);
+        if (isEmpty(value)) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new SiddhiAppCreationException("Annotation '" + storeAnnotation.getName() + "' contains " +
+                    "illegal value for '" + elementName + "' as '" + value + "'. Please check your query and " +
+                    "try again.", e);
         }
-        return Document.parse(compiledQuery);
     }
 
     /**
@@ -399,13 +602,101 @@ public class MongoTableUtils {
      * @return Document
      */
     public static Map<String, Object> mapValuesToAttributes(Object[] record, List<String> attributeNames) {
+        return mapValuesToAttributes(record, attributeNames, Collections.emptySet());
+    }
+
+    /**
+     * Utility method to map the values to the respective attributes before database writes, storing the values
+     * of the date fields as BSON Dates.
+     *
+     * @param record         Object array of the runtime values.
+     * @param attributeNames List containing names of the attributes.
+     * @param dateFields     the attributes holding epoch times in milliseconds which are stored as BSON Dates.
+     * @return Document
+     */
+    public static Map<String, Object> mapValuesToAttributes(Object[] record, List<String> attributeNames,
+                                                            Set<String> dateFields) {
         Map<String, Object> attributesValuesMap = new HashMap<>();
         for (int i = 0; i < record.length; i++) {
-            attributesValuesMap.put(attributeNames.get(i), record[i]);
+            String attributeName = attributeNames.get(i);
+            attributesValuesMap.put(attributeName,
+                    dateFields.contains(attributeName) ? toBsonDate(record[i]) : record[i]);
         }
         return attributesValuesMap;
     }
 
+    /**
+     * Utility method for converting the epoch times in milliseconds of a value to BSON Dates. The values of the
+     * operator documents and lists, such as '{$gte:t1,$lt:t2}' or '{$in:[t1,t2]}', are converted as well.
+     *
+     * @param value the value of a date field, or the predicates on a date field.
+     * @return the converted value.
+     */
+    public static Object toBsonDate(Object value) {
+        if (value instanceof Number) {
+            return new Date(((Number) value).longValue());
+        } else if (value instanceof Document) {
+            Document convertedDocument = new Document();
+            ((Document) value).forEach((key, nestedValue) -> convertedDocument.append(key, toBsonDate(nestedValue)));
+            return convertedDocument;
+        } else if (value instanceof List) {
+            return ((List<?>) value).stream().map(MongoTableUtils::toBsonDate).collect(Collectors.toList());
+        }
+        return value;
+    }
+
+    /**
+     * Utility method for converting the values compared with the date fields in a resolved filter to BSON Dates,
+     * including the filters nested in the logical operators. Aggregation expressions of '$expr' are not converted,
+     * since the date fields are converted to epoch times inside them instead.
+     *
+     * @param filter     the resolved filter.
+     * @param dateFields the attributes holding epoch times in milliseconds which are stored as BSON Dates.
+     * @return the converted filter.
+     */
+    public static Document convertDateFields(Document filter, Set<String> dateFields) {
+        Document convertedFilter = new Document();
+        for (Map.Entry<String, Object> entry : filter.entrySet()) {
+            Object value = entry.getValue();
+            if (dateFields.contains(entry.getKey())) {
+                value = toBsonDate(value);
+            } else if (entry.getKey().startsWith("$") && value instanceof List) {
+                value = ((List<?>) value).stream().map(nestedFilter -> nestedFilter instanceof Document ?
+                        convertDateFields((Document) nestedFilter, dateFields) : nestedFilter)
+                        .collect(Collectors.toList());
+            }
+            convertedFilter.append(entry.getKey(), value);
+        }
+        return convertedFilter;
+    }
+
+    /**
+     * Utility method for estimating the encoded size of a value in a BSON document, used to keep the combined
+     * filters well below the maximum document size. Strings are estimated with the worst case UTF-8 encoding.
+     *
+     * @param value the value.
+     * @return the estimated size in bytes, including the type and name of the element.
+     */
+    public static int estimateBsonSize(Object value) {
+        int size = MongoTableConstants.BSON_ELEMENT_OVERHEAD;
+        if (value instanceof String) {
+            size += 5 + ((String) value).length() * 3;
+        } else if (value instanceof Map) {
+            size += 5;
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                size += String.valueOf(entry.getKey()).length() * 3 + estimateBsonSize(entry.getValue());
+            }
+        } else if (value instanceof Collection) {
+            size += 5;
+            for (Object element : (Collection<?>) value) {
+                size += estimateBsonSize(element);
+            }
+        } else if (value != null) {
+            size += 8;
+        }
+        return size;
+    }
+
     /**
      * Utility method which can be used to check if the existing indices contain the expected indices
      * defined by the annotation 'PrimaryKey' and 'IndexBy' and log a warning when indices differs.
@@ -414,51 +705,8 @@ public class MongoTableUtils {
      * @param expectedIndices List of indices that are defined by the annotations.
      */
     public static void checkExistingIndices(List<IndexModel> expectedIndices, MongoCursor<Document> existingIndices) {
-        Map<String, Object> indexOptionsMap = new HashMap<>();
-        List<Document> expectedIndexDocuments = expectedIndices.stream().map(expectedIndex -> {
-            IndexOptions expectedIndexOptions = expectedIndex.getOptions();
-            indexOptionsMap.put("key", expectedIndex.getKeys());
-            // Default value for name of the index
-            if (expectedIndexOptions.getName() == null) {
-                StringBuilder indexName = new StringBuilder();
-                ((Document) expectedIndex.getKeys()).forEach((key, value) ->
-                        indexName.append("_").append(key).append("_").append(value));
-                indexName.deleteCharAt(0);
-                indexOptionsMap.put("name", indexName.toString());
-            } else {
-                indexOptionsMap.put("name", expectedIndexOptions.getName());
-            }
-            // Default value for the version
-            if (expectedIndexOptions.getVersion() == null) {
-                indexOptionsMap.put("v", 2);
-            } else {
-                indexOptionsMap.put("v", expectedIndexOptions.getVersion());
-            }
-            indexOptionsMap.put("unique", expectedIndexOptions.isUnique());
-            indexOptionsMap.put("background", expectedIndexOptions.isBackground());
-            indexOptionsMap.put("sparse", expectedIndexOptions.isSparse());
-            indexOptionsMap.put("expireAfterSeconds", expectedIndexOptions.getExpireAfter(TimeUnit.SECONDS));
-            indexOptionsMap.put("weights", expectedIndexOptions.getWeights());
-            indexOptionsMap.put("languageOverride", expectedIndexOptions.getLanguageOverride());
-            indexOptionsMap.put("defaultLanguage", expectedIndexOptions.getDefaultLanguage());
-            indexOptionsMap.put("textVersion", expectedIndexOptions.getTextVersion());
-            indexOptionsMap.put("sphereVersion", expectedIndexOptions.getSphereVersion());
-            indexOptionsMap.put("bits", expectedIndexOptions.getBits());
-            indexOptionsMap.put("min", expectedIndexOptions.getMin());
-            indexOptionsMap.put("max", expectedIndexOptions.getMax());
-            indexOptionsMap.put("bucketSize", expectedIndexOptions.getBucketSize());
-            indexOptionsMap.put("partialFilterExpression", expectedIndexOptions.getPartialFilterExpression());
-            indexOptionsMap.put("collation", expectedIndexOptions.getCollation());
-            indexOptionsMap.put("storageEngine", expectedIndexOptions.getStorageEngine());
-
-            //Remove if Default Values - these would not be in the existingIndexDocument.
-            indexOptionsMap.values().removeIf(Objects::isNull);
-            indexOptionsMap.remove("unique", false);
-            indexOptionsMap.remove("background", false);
-            indexOptionsMap.remove("sparse", false);
-
-            return new Document(indexOptionsMap);
-        }).collect(Collectors.toList());
+        List<Document> expectedIndexDocuments = expectedIndices.stream()
+                .map(MongoTableUtils::createIndexDocument).collect(Collectors.toList());
 
         List<Document> existingIndexDocuments = new ArrayList<>();
         existingIndices.forEachRemaining(existingIndex -> {
@@ -473,6 +721,76 @@ public class MongoTableUtils {
         }
     }
 
+    /**
+     * Utility method which can be used to convert an IndexModel to the document format in which MongoDB lists
+     * the indices of a collection.
+     *
+     * @param expectedIndex the IndexModel defined by the annotations.
+     * @return Document describing the index.
+     */
+    public static Document createIndexDocument(IndexModel expectedIndex) {
+        Map<String, Object> indexOptionsMap = new HashMap<>();
+        IndexOptions expectedIndexOptions = expectedIndex.getOptions();
+        indexOptionsMap.put("key", expectedIndex.getKeys());
+        // Default value for name of the index
+        if (expectedIndexOptions.getName() == null) {
+            StringBuilder indexName = new StringBuilder();
+            ((Document) expectedIndex.getKeys()).forEach((key, value) ->
+                    indexName.append("_").append(key).append("_").append(value));
+            indexName.deleteCharAt(0);
+            indexOptionsMap.put("name", indexName.toString());
+        } else {
+            indexOptionsMap.put("name", expectedIndexOptions.getName());
+        }
+        // Default value for the version
+        if (expectedIndexOptions.getVersion() == null) {
+            indexOptionsMap.put("v", 2);
+        } else {
+            indexOptionsMap.put("v", expectedIndexOptions.getVersion());
+        }
+        indexOptionsMap.put("unique", expectedIndexOptions.isUnique());
+        indexOptionsMap.put("background", expectedIndexOptions.isBackground());
+        indexOptionsMap.put("sparse", expectedIndexOptions.isSparse());
+        indexOptionsMap.put("expireAfterSeconds", expectedIndexOptions.getExpireAfter(TimeUnit.SECONDS));
+        indexOptionsMap.put("weights", expectedIndexOptions.getWeights());
+        indexOptionsMap.put("languageOverride", expectedIndexOptions.getLanguageOverride());
+        indexOptionsMap.put("defaultLanguage", expectedIndexOptions.getDefaultLanguage());
+        indexOptionsMap.put("textVersion", expectedIndexOptions.getTextVersion());
+        indexOptionsMap.put("sphereVersion", expectedIndexOptions.getSphereVersion());
+        indexOptionsMap.put("bits", expectedIndexOptions.getBits());
+        indexOptionsMap.put("min", expectedIndexOptions.getMin());
+        indexOptionsMap.put("max", expectedIndexOptions.getMax());
+        indexOptionsMap.put("bucketSize", expectedIndexOptions.getBucketSize());
+        indexOptionsMap.put("partialFilterExpression", expectedIndexOptions.getPartialFilterExpression());
+        indexOptionsMap.put("collation", expectedIndexOptions.getCollation());
+        indexOptionsMap.put("storageEngine", expectedIndexOptions.getStorageEngine());
+
+        //Remove if Default Values - these would not be in the existingIndexDocument.
+        indexOptionsMap.values().removeIf(Objects::isNull);
+        indexOptionsMap.remove("unique", false);
+        indexOptionsMap.remove("background", false);
+        indexOptionsMap.remove("sparse", false);
+
+        return new Document(indexOptionsMap);
+    }
+
+    /**
+     * Utility method which can be used to check if an existing index is equivalent to an expected index.
+     * The 'background' option only affects how the index is built, hence it is not considered.
+     *
+     * @param expectedIndex the document describing the expected index.
+     * @param existingIndex the document describing the existing index.
+     * @return true if both documents describe the same index.
+     */
+    public static boolean isSameIndex(Document expectedIndex, Document existingIndex) {
+        Document expected = new Document(expectedIndex);
+        Document existing = new Document(existingIndex);
+        expected.remove("background");
+        existing.remove("background");
+        existing.remove("ns");
+        return expected.equals(existing);
+    }
+
     /**
      * Utility method which can be used to create MongoClientOptionsBuilder from values defined in the
      * deployment yaml file.
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.store.mongodb;
+
+import io.siddhi.core.SiddhiAppRuntime;
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.stream.input.InputHandler;
+import io.siddhi.extension.store.mongodb.util.MongoTableUtils;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+import org.bson.Document;
+import org.testng.Assert;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Differential tests which check that the in-JVM predicates of the compiled conditions match exactly the records
+ * matched by the MongoDB filters of the same conditions.
+ */
+public class ConditionPredicateTest {
+
+    private static final Log log = LogFactory.getLog(ConditionPredicateTest.class);
+
+    private static String uri = MongoTableTestUtils.resolveBaseUri();
+
+    private static final String[] CONDITIONS = {
+            "FooTable.symbol == symbol",
+            "FooTable.symbol != symbol",
+            "FooTable.price > price",
+            "FooTable.price <= 55.6",
+            "FooTable.volume == volume",
+            "FooTable.volume >= price",
+            "FooTable.symbol is null",
+            "not (FooTable.symbol is null)",
+            "not (FooTable.price > price)",
+            "FooTable.price > 10 and FooTable.price < price",
+            "FooTable.symbol == 'IBM' or FooTable.symbol == symbol or FooTable.volume < 50",
+            "not (FooTable.symbol == 'IBM' or FooTable.price > price)",
+            "not (FooTable.symbol == 'IBM' and FooTable.volume > volume)",
+            "FooTable.volume + 10 > volume",
+            "FooTable.price * 2 >= FooTable.volume",
+            "not (FooTable.volume - volume < 0)",
+            "FooTable.volume < FooTable.price",
+            "not (FooTable.price >= FooTable.volume)",
+            "FooTable.price / FooTable.volume < price",
+            "not (FooTable.volume % FooTable.price == 0)",
+            "FooTable.price * FooTable.volume >= volume / FooTable.volume",
+            "FooTable.volume / 3 == 33",
+            "FooTable.id / 2 == 3",
+            "FooTable.volume / volume >= 1 and FooTable.price / 2 > 27.7",
+            "str:startsWith(FooTable.symbol, symbol)",
+            "str:contains(FooTable.symbol, 'O')",
+            "not str:endsWith(FooTable.symbol, '2')",
+            "str:equalsIgnoreCase(FooTable.symbol, symbol)",
+            "str:equalsIgnoreCase(FooTable.symbol, symbol) or FooTable.price < price",
+            "regex:matches('[A-Z]+', FooTable.symbol)"
+    };
+
+    private static final Object[][] ROWS = {
+            {1, "WSO2", 55.6, 100L},
+            {2, "IBM", 75.6, 10L},
+            {3, "ibm", 57.6, 100L},
+            {4, "ORCL", null, 40L},
+            {5, null, 12.5, 100L},
+            {6, "GOOG", 100.0, null},
+            {7, "Wso2", 55.6, 200L},
+            {8, "", -1.0, 0L},
+            {9, "ZERO", 0.0, 0L},
+            {10, "NULL", null, null}
+    };
+
+    private static final Object[][] PARAMETERS = {
+            {"IBM", 60.0, 100L},
+            {"wso2", 55.6, 40L},
+            {"W", 100.0, 0L},
+            {null, 13.0, 200L}
+    };
+
+    @BeforeClass
+    public void init() {
+        log.info("== MongoDB Collection Condition Predicate tests started ==");
+    }
+
+    @AfterClass
+    public void shutdown() {
+        log.info("== MongoDB Collection Condition Predicate tests completed ==");
+    }
+
+    @Test
+    public void conditionPredicateTest1() throws InterruptedException {
+        log.info("conditionPredicateTest1 - In-JVM predicates agree with the MongoDB filters");
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        StringFunctionTestExtensions.register(siddhiManager);
+        StringBuilder siddhiApp = new StringBuilder("" +
+                "define stream StockStream (id int, symbol string, price double, volume long); " +
+                "define stream DeleteStockStream (symbol string, price double, volume long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "')" +
+                "define table FooTable (id int, symbol string, price double, volume long);" +
+                "@info(name = 'query') " +
+                "from StockStream " +
+                "insert into FooTable ;");
+        for (int i = 0; i < CONDITIONS.length; i++) {
+            siddhiApp.append("@info(name = 'condition").append(i).append("') ")
+                    .append("from DeleteStockStream delete FooTable on ").append(CONDITIONS[i]).append(";");
+        }
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(siddhiApp.toString());
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+        for (Object[] row : ROWS) {
+            stockStream.send(row);
+        }
+        MongoDBEventTable table = (MongoDBEventTable) siddhiAppRuntime.getTables().iterator().next();
+        List<MongoCompiledCondition> compiledConditions = new ArrayList<>(table.getCompiledConditions());
+        siddhiAppRuntime.shutdown();
+
+        Assert.assertEquals(compiledConditions.size(), CONDITIONS.length, "Condition compilation failed");
+        for (int i = 0; i < CONDITIONS.length; i++) {
+            MongoCompiledCondition compiledCondition = compiledConditions.get(i);
+            for (Object[] parameterValues : PARAMETERS) {
+                Map<String, Object> parameters = new HashMap<>();
+                parameters.put("symbol", parameterValues[0]);
+                parameters.put("price", parameterValues[1]);
+                parameters.put("volume", parameterValues[2]);
+
+                Document filter = MongoTableUtils.resolveCondition(compiledCondition, parameters);
+                Set<Integer> expectedIds = new TreeSet<>();
+                for (Document document : MongoTableTestUtils.findDocuments(uri, "FooTable", filter,
+                        compiledCondition.getCollation())) {
+                    expectedIds.add(document.getInteger("id"));
+                }
+                Set<Integer> actualIds = new TreeSet<>();
+                for (Object[] row : ROWS) {
+                    if (compiledCondition.getPredicate().test(row, parameters)) {
+                        actualIds.add((Integer) row[0]);
+                    }
+                }
+                Assert.assertEquals(actualIds, expectedIds, "Predicate of the condition '" + CONDITIONS[i] +
+                        "' compiled as '" + filter.toJson() + "' disagrees with the MongoDB for the parameters " +
+                        parameters);
+            }
+        }
+    }
+}
@@ -19,16 +19,21 @@ package io.siddhi.extension.store.mongodb;
 
 import io.siddhi.core.SiddhiAppRuntime;
 import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.exception.ConnectionUnavailableException;
 import io.siddhi.core.exception.SiddhiAppCreationException;
 import io.siddhi.core.stream.input.InputHandler;
-import io.siddhi.extension.store.mongodb.exception.MongoTableException;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.bson.Document;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 public class ConditionVisitorTest {
 
     private final Log log = LogFactory.getLog(ConditionVisitorTest.class);
@@ -609,10 +614,12 @@ public class ConditionVisitorTest {
         Assert.assertEquals(totalDocumentsInCollection, 0, "Deletion failed");
     }
 
-    @Test(expectedExceptions = MongoTableException.class)
-    public void conditionBuilderTest17() {
+    @Test
+    public void conditionBuilderTest17() throws InterruptedException {
         log.info("conditionBuilderTest17");
 
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
         SiddhiManager siddhiManager = new SiddhiManager();
         String streams = "" +
                 "define stream StockStream (symbol string, price float, volume long); " +
@@ -629,10 +636,20 @@ public class ConditionVisitorTest {
                 "delete FooTable " +
                 "   on FooTable.price + price < 67;";
         SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler deleteStockStream = siddhiAppRuntime.getInputHandler("DeleteStockStream");
         siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", 55.6F, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6F, 100L});
+        stockStream.send(new Object[]{"WSO2", 57.6F, 100L});
+        deleteStockStream.send(new Object[]{"WSO2", 10F, 100L});
+
         siddhiAppRuntime.shutdown();
-    }
 
+        long totalDocumentsInCollection = MongoTableTestUtils.getDocumentsCount(uri, "FooTable");
+        Assert.assertEquals(totalDocumentsInCollection, 2, "Deletion failed");
+    }
 
     @Test(expectedExceptions = SiddhiAppCreationException.class)
     public void conditionBuilderTest18() {
@@ -657,4 +674,278 @@ public class ConditionVisitorTest {
         siddhiAppRuntime.start();
         siddhiAppRuntime.shutdown();
     }
+
+    @Test
+    public void conditionBuilderTest19() throws ConnectionUnavailableException {
+        log.info("conditionBuilderTest19 - index advisor reports conditions without a supporting index");
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream DeleteStockStream (symbol string, price float, volume long); " +
+                "define stream UpdateStockStream (symbol string, price float, volume long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "', index.advisor='true')" +
+                "@Index(\"price:1\")" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from DeleteStockStream " +
+                "delete FooTable " +
+                "   on FooTable.symbol == symbol and FooTable.volume > volume;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from UpdateStockStream " +
+                "update FooTable " +
+                "   on FooTable.price == price;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.start();
+
+        MongoDBEventTable table = (MongoDBEventTable) siddhiAppRuntime.getTables().iterator().next();
+        List<Document> indexAdvice = table.getIndexAdvice();
+        siddhiAppRuntime.shutdown();
+
+        Assert.assertEquals(indexAdvice.size(), 1, "Index advice failed");
+        Assert.assertEquals(indexAdvice.get(0).get("plan"), "COLLSCAN", "Index advice failed");
+        Assert.assertEquals(indexAdvice.get(0).get("suggestedIndex"),
+                new Document("symbol", 1).append("volume", 1), "Index advice failed");
+    }
+
+    @Test
+    public void conditionBuilderTest20() throws InterruptedException {
+        log.info("conditionBuilderTest20 - OR chain of equalities on the same field");
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream DeleteStockStream (symbol string, price float, volume long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from DeleteStockStream " +
+                "delete FooTable " +
+                "   on FooTable.symbol == 'IBM' or FooTable.symbol == symbol or FooTable.symbol == 'ORCL';";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler deleteStockStream = siddhiAppRuntime.getInputHandler("DeleteStockStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", 55.6F, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6F, 100L});
+        stockStream.send(new Object[]{"ORCL", 57.6F, 100L});
+        stockStream.send(new Object[]{"GOOG", 57.6F, 100L});
+        deleteStockStream.send(new Object[]{"WSO2", 57.6F, 100L});
+
+        siddhiAppRuntime.shutdown();
+
+        long totalDocumentsInCollection = MongoTableTestUtils.getDocumentsCount(uri, "FooTable");
+        Assert.assertEquals(totalDocumentsInCollection, 1, "Deletion failed");
+    }
+
+    @Test
+    public void conditionBuilderTest21() throws InterruptedException {
+        log.info("conditionBuilderTest21 - MATH operations and comparisons between table attributes");
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream DeleteStockStream (symbol string, price float, volume long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from DeleteStockStream " +
+                "delete FooTable " +
+                "   on FooTable.price * FooTable.volume > volume or FooTable.price > FooTable.volume " +
+                "   or FooTable.volume / FooTable.price < 0 or FooTable.volume % FooTable.price > price;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler deleteStockStream = siddhiAppRuntime.getInputHandler("DeleteStockStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", 55.6F, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6F, 10L});
+        stockStream.send(new Object[]{"ORCL", 5.5F, 100L});
+        stockStream.send(new Object[]{"NULL", 5.5F, null});
+        stockStream.send(new Object[]{"ZERO", 0F, 0L});
+        deleteStockStream.send(new Object[]{"WSO2", 10F, 1000L});
+
+        siddhiAppRuntime.shutdown();
+
+        long totalDocumentsInCollection = MongoTableTestUtils.getDocumentsCount(uri, "FooTable");
+        Assert.assertEquals(totalDocumentsInCollection, 3, "Deletion failed");
+        Assert.assertNotNull(MongoTableTestUtils.getDocument(uri, "FooTable", "{symbol:'NULL'}"),
+                "Document with a null attribute is matched by the comparison");
+        Assert.assertNotNull(MongoTableTestUtils.getDocument(uri, "FooTable", "{symbol:'ZERO'}"),
+                "Document with a zero divisor is matched by the comparison");
+    }
+
+    @Test
+    public void conditionBuilderTest22() throws InterruptedException {
+        log.info("conditionBuilderTest22 - string and regex functions");
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        StringFunctionTestExtensions.register(siddhiManager);
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream DeleteStockStream (symbol string, price float, volume long); " +
+                "define stream DeleteIgnoreCaseStream (symbol string, price float, volume long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from DeleteStockStream " +
+                "delete FooTable " +
+                "   on str:startsWith(FooTable.symbol, symbol) or regex:matches('.*_v[0-9]', FooTable.symbol);" +
+                "" +
+                "@info(name = 'query3') " +
+                "from DeleteIgnoreCaseStream " +
+                "delete FooTable " +
+                "   on str:equalsIgnoreCase(FooTable.symbol, symbol);";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler deleteStockStream = siddhiAppRuntime.getInputHandler("DeleteStockStream");
+        InputHandler deleteIgnoreCaseStream = siddhiAppRuntime.getInputHandler("DeleteIgnoreCaseStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"W.SO2", 55.6F, 100L});
+        stockStream.send(new Object[]{"WXSO2", 75.6F, 100L});
+        stockStream.send(new Object[]{"IBM_v2", 57.6F, 100L});
+        stockStream.send(new Object[]{"ORCL", 57.6F, 100L});
+        stockStream.send(new Object[]{"GOOG", 57.6F, 100L});
+        deleteStockStream.send(new Object[]{"W.", 57.6F, 100L});
+        deleteIgnoreCaseStream.send(new Object[]{"orcl", 57.6F, 100L});
+
+        siddhiAppRuntime.shutdown();
+
+        long totalDocumentsInCollection = MongoTableTestUtils.getDocumentsCount(uri, "FooTable");
+        Assert.assertEquals(totalDocumentsInCollection, 2, "Deletion failed");
+    }
+
+    @Test
+    public void conditionBuilderTest23() throws InterruptedException {
+        log.info("conditionBuilderTest23 - NOT over OR with a null check and a range on the same field");
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream DeleteStockStream (symbol string, price float, volume long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from DeleteStockStream " +
+                "delete FooTable " +
+                "   on not (FooTable.symbol is null or FooTable.symbol == symbol) and FooTable.price > 50 " +
+                "       and FooTable.price < price;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler deleteStockStream = siddhiAppRuntime.getInputHandler("DeleteStockStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", 55.6F, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6F, 100L});
+        stockStream.send(new Object[]{"ORCL", 57.6F, 100L});
+        stockStream.send(new Object[]{"GOOG", 57.6F, 100L});
+        stockStream.send(new Object[]{null, 57.6F, 100L});
+        deleteStockStream.send(new Object[]{"WSO2", 70F, 100L});
+
+        siddhiAppRuntime.shutdown();
+
+        long totalDocumentsInCollection = MongoTableTestUtils.getDocumentsCount(uri, "FooTable");
+        Assert.assertEquals(totalDocumentsInCollection, 3, "Deletion failed");
+    }
+
+    @Test
+    public void conditionBuilderTest24() throws InterruptedException {
+        log.info("conditionBuilderTest24 - Conditions and indices on nested fields of an object attribute");
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, properties object); " +
+                "define stream DeleteStockStream (model string, weight double); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "')" +
+                "@Index('properties.model:1', 'properties.size.weight:1')" +
+                "define table FooTable (symbol string, properties object);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from DeleteStockStream " +
+                "delete FooTable " +
+                "   on mongodb:field(FooTable.properties, 'model', 'string') == model " +
+                "       and mongodb:field(FooTable.properties, 'size.weight', 'double') < weight;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler deleteStockStream = siddhiAppRuntime.getInputHandler("DeleteStockStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", createProperties("A1", 10.5)});
+        stockStream.send(new Object[]{"IBM", createProperties("A1", 25.0)});
+        stockStream.send(new Object[]{"ORCL", createProperties("B2", 10.5)});
+        deleteStockStream.send(new Object[]{"A1", 20.0});
+
+        siddhiAppRuntime.shutdown();
+
+        long totalDocumentsInCollection = MongoTableTestUtils.getDocumentsCount(uri, "FooTable");
+        Assert.assertEquals(totalDocumentsInCollection, 2, "Deletion failed");
+        Assert.assertNotNull(MongoTableTestUtils.getIndex(uri, "FooTable",
+                "properties.model_1_properties.size.weight_1"), "Index on the nested fields was not created");
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void conditionBuilderTest25() {
+        log.info("conditionBuilderTest25 - IN operation on the table itself within a condition");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream DeleteStockStream (symbol string, price float, volume long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from DeleteStockStream " +
+                "delete FooTable " +
+                "   on (FooTable.symbol == 'IBM') in FooTable;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.shutdown();
+    }
+
+    private static Map<String, Object> createProperties(String model, double weight) {
+        Map<String, Object> size = new HashMap<>();
+        size.put("weight", weight);
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("model", model);
+        properties.put("size", size);
+        return properties;
+    }
 }
@@ -182,4 +182,135 @@ public class ContainsMongoTableTest {
 
         Assert.assertEquals(eventCount.intValue(), 2, "Number of success events");
     }
+
+    @Test
+    public void containsMongoTableTest3() throws InterruptedException {
+        log.info("containsMongoTableTest3 - " +
+                "Check whether record exist with an index hint and a maximum execution time");
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream FooStream (symbol string, price double, volume int);" +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "', query.hint='symbol_1', " +
+                "query.max.time='5000')" +
+                "@Index('symbol:1')" +
+                "define table FooTable (symbol string, price float, volume long);" +
+                "define stream OutputStream (symbol string, price double, volume int);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream   " +
+                "insert into FooTable ;" +
+                "@info(name='query2')" +
+                "from FooStream[(FooTable.symbol == symbol) in FooTable]" +
+                "insert into OutputStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.addCallback("OutputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                if (events != null) {
+                    for (Event event : events) {
+                        eventCount.incrementAndGet();
+                        switch (eventCount.intValue()) {
+                            case 1:
+                                Assert.assertEquals(new Object[]{"WSO2", 5.56, 200}, event.getData());
+                                break;
+                            case 2:
+                                Assert.assertEquals(new Object[]{"IBM", 7.56, 200}, event.getData());
+                                break;
+                            default:
+                                Assert.assertEquals(new Object[]{}, event.getData());
+                                break;
+                        }
+                    }
+                }
+            }
+        });
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", 55.6F, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6F, 100L});
+        stockStream.send(new Object[]{"WSO2_2", 57.6F, 100L});
+        fooStream.send(new Object[]{"WSO2", 5.56, 200});
+        fooStream.send(new Object[]{"IBM", 7.56, 200});
+        fooStream.send(new Object[]{"IBM_2", 70.56, 200});
+        SiddhiTestHelper.waitForEvents(waitTime, 2, eventCount, timeout);
+
+        siddhiAppRuntime.shutdown();
+
+        Assert.assertEquals(eventCount.intValue(), 2, "Number of success events");
+    }
+
+    @Test
+    public void containsMongoTableTest4() throws InterruptedException {
+        log.info("containsMongoTableTest4");
+        //Table sharded across two databases by the primary key, checked by the key and by a non key condition
+
+        String shardUri = MongoTableTestUtils.resolveBaseUri(
+                "mongodb://{{mongo.credentials}}{{mongo.servers}}/shard1?authSource={{mongo.database}}");
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+        MongoTableTestUtils.dropCollection(uri, "shard1", "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream FooStream (symbol string, price float); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "', shard.uris='" + shardUri + "')" +
+                "@PrimaryKey(\"symbol\")" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream   " +
+                "insert into FooTable ;" +
+
+                "@info(name='query2')" +
+                "from FooStream[(FooTable.symbol == symbol) in FooTable]" +
+                "insert into OutputStream ;" +
+
+                "@info(name='query3')" +
+                "from FooStream[(FooTable.price > price) in FooTable]" +
+                "insert into PriceStream ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        AtomicInteger priceEventCount = new AtomicInteger(0);
+        siddhiAppRuntime.addCallback("OutputStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                eventCount.addAndGet(events.length);
+            }
+        });
+        siddhiAppRuntime.addCallback("PriceStream", new StreamCallback() {
+            @Override
+            public void receive(Event[] events) {
+                priceEventCount.addAndGet(events.length);
+            }
+        });
+        siddhiAppRuntime.start();
+
+        for (int i = 0; i < 10; i++) {
+            stockStream.send(new Object[]{"SYM" + i, 10F * i, 100L});
+        }
+        fooStream.send(new Object[]{"SYM3", 95F});
+        fooStream.send(new Object[]{"SYM7", 80F});
+        fooStream.send(new Object[]{"IBM", 75F});
+        SiddhiTestHelper.waitForEvents(waitTime, 2, eventCount, timeout);
+        SiddhiTestHelper.waitForEvents(waitTime, 2, priceEventCount, timeout);
+
+        siddhiAppRuntime.shutdown();
+
+        Assert.assertEquals(eventCount.intValue(), 2, "Number of success events");
+        Assert.assertEquals(priceEventCount.intValue(), 2, "Number of success events of the non key condition");
+        long shard0Documents = MongoTableTestUtils.getDocumentsCount(uri, "FooTable");
+        long shard1Documents = MongoTableTestUtils.getDocumentsCount(uri, "shard1", "FooTable");
+        Assert.assertEquals(shard0Documents + shard1Documents, 10, "Insertion failed");
+        Assert.assertTrue(shard0Documents > 0 && shard1Documents > 0, "Documents are not sharded");
+    }
 }
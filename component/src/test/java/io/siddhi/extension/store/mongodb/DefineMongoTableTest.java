@@ -17,9 +17,11 @@
  */
 package io.siddhi.extension.store.mongodb;
 
+import com.mongodb.client.model.IndexOptions;
 import io.siddhi.core.SiddhiAppRuntime;
 import io.siddhi.core.SiddhiManager;
 import io.siddhi.core.exception.SiddhiAppCreationException;
+import io.siddhi.core.table.Table;
 import org.apache.log4j.Logger;
 import org.bson.Document;
 import org.testng.Assert;
@@ -841,4 +843,192 @@ public class DefineMongoTableTest {
 
     }
 
+    @Test
+    public void mongoTableDefinitionTest36() {
+        log.info("mongoTableDefinitionTest36 - " +
+                "Defining MongoDB event tables with asynchronous index creation and a readiness timeout");
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+        MongoTableTestUtils.dropCollection(uri, "BarTable");
+        MongoTableTestUtils.dropCollection(uri, "BazTable");
+        MongoTableTestUtils.createCollection(uri, "BarTable");
+        MongoTableTestUtils.createIndex(uri, "BarTable", new Document("price", 1));
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        StringBuilder streams = new StringBuilder();
+        for (String tableId : new String[]{"FooTable", "BarTable", "BazTable"}) {
+            streams.append("@store(type = 'mongodb', mongodb.uri='").append(uri).append("', ")
+                    .append("async.index.creation='true', index.readiness.timeout='10000')")
+                    .append("@Index(\"price:1\")")
+                    .append("define table ").append(tableId).append(" (symbol string, price float, volume long); ");
+        }
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams.toString());
+        siddhiAppRuntime.start();
+        for (Table table : siddhiAppRuntime.getTables()) {
+            Assert.assertTrue(((MongoDBEventTable) table).isIndexReady(),
+                    "Indices are not ready after the readiness timeout");
+        }
+        siddhiAppRuntime.shutdown();
+
+        boolean doesCollectionExists = MongoTableTestUtils.doesCollectionExists(uri, "FooTable");
+        Assert.assertTrue(doesCollectionExists, "Definition failed");
+
+        Document priceIndexExpected = new Document()
+                .append("name", "price_1")
+                .append("v", 2)
+                .append("key", new Document("price", 1))
+                .append("background", true);
+        Document priceIndexActual = MongoTableTestUtils.getIndex(uri, "FooTable", "price_1");
+        Assert.assertEquals(priceIndexActual, priceIndexExpected, "Index Creation Failed");
+        Assert.assertNotNull(MongoTableTestUtils.getIndex(uri, "BazTable", "price_1"), "Index Creation Failed");
+    }
+
+    @Test
+    public void mongoTableDefinitionTest37() {
+        log.info("mongoTableDefinitionTest37 - " +
+                "Defining a MongoDB event table which reconciles the indices of an existing collection");
+
+        MongoTableTestUtils.createCollection(uri, "FooTable");
+        MongoTableTestUtils.createIndex(uri, "FooTable", new Document("volume", 1));
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "@store(type = 'mongodb', mongodb.uri='" + uri + "', index.reconcile='true', " +
+                "index.drop.redundant='true', index.readiness.timeout='10000')" +
+                "@Index(\"price:1\")" +
+                "define table FooTable (symbol string, price float, volume long); ";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams);
+        siddhiAppRuntime.start();
+        siddhiAppRuntime.shutdown();
+
+        Document priceIndexExpected = new Document()
+                .append("name", "price_1")
+                .append("v", 2)
+                .append("key", new Document("price", 1))
+                .append("background", true);
+        Document priceIndexActual = MongoTableTestUtils.getIndex(uri, "FooTable", "price_1");
+        Assert.assertEquals(priceIndexActual, priceIndexExpected, "Index Reconciliation Failed");
+        Assert.assertNull(MongoTableTestUtils.getIndex(uri, "FooTable", "volume_1"),
+                "Redundant Index is not dropped");
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void mongoTableDefinitionTest38() {
+        log.info("mongoTableDefinitionTest38 - " +
+                "Defining a MongoDB event table as a time-series collection with a primary key");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "@store(type = 'mongodb', mongodb.uri='" + uri + "', collection.type='timeseries', " +
+                "time.field='timestamp', meta.field='sensor', granularity='minutes')" +
+                "@PrimaryKey(\"sensor\")" +
+                "define table FooTable (sensor string, reading double, timestamp long); ";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams);
+        siddhiAppRuntime.start();
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void mongoTableDefinitionTest39() throws InterruptedException {
+        log.info("mongoTableDefinitionTest39 - " +
+                "Defining a MongoDB event table whose asynchronous index creation fails");
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        Logger tableLogger = Logger.getLogger(MongoDBEventTable.class);
+        UnitTestAppender appender = new UnitTestAppender();
+        tableLogger.addAppender(appender);
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "@store(type = 'mongodb', mongodb.uri='" + uri + "', async.index.creation='true')" +
+                "@Index(\"price:1\", \"{name:'conflict'}\")" +
+                "@Index(\"volume:1\", \"{name:'conflict'}\")" +
+                "define table FooTable (symbol string, price float, volume long); ";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams);
+        siddhiAppRuntime.start();
+        for (int i = 0; i < 100 && (appender.getMessages() == null ||
+                !appender.getMessages().startsWith("Preparing indices")); i++) {
+            Thread.sleep(100);
+        }
+        MongoDBEventTable table = (MongoDBEventTable) siddhiAppRuntime.getTables().iterator().next();
+        Assert.assertFalse(table.isIndexReady(), "Failed indices are reported as ready");
+        siddhiAppRuntime.shutdown();
+        tableLogger.removeAppender(appender);
+    }
+
+    @Test
+    public void mongoTableDefinitionTest40() {
+        log.info("mongoTableDefinitionTest40 - " +
+                "Defining a MongoDB event table which replaces an index having the name of a defined index");
+
+        MongoTableTestUtils.createCollection(uri, "FooTable");
+        MongoTableTestUtils.createIndex(uri, "FooTable", new Document("volume", 1),
+                new IndexOptions().name("price_1"));
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "@store(type = 'mongodb', mongodb.uri='" + uri + "', index.reconcile='true', " +
+                "index.drop.redundant='true', index.readiness.timeout='10000', query.hint='price_1')" +
+                "@Index(\"price:1\")" +
+                "define table FooTable (symbol string, price float, volume long); ";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams);
+        siddhiAppRuntime.start();
+        MongoDBEventTable table = (MongoDBEventTable) siddhiAppRuntime.getTables().iterator().next();
+        Assert.assertTrue(table.isIndexReady(), "Indices are not ready after the readiness timeout");
+        siddhiAppRuntime.shutdown();
+
+        Document priceIndexActual = MongoTableTestUtils.getIndex(uri, "FooTable", "price_1");
+        Assert.assertNotNull(priceIndexActual, "Index Reconciliation Failed");
+        Assert.assertEquals(priceIndexActual.get("key"), new Document("price", 1), "Index Reconciliation Failed");
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void mongoTableDefinitionTest41() {
+        log.info("mongoTableDefinitionTest41 - " +
+                "Defining a MongoDB event table sharded by a primary key of the type double");
+
+        String shardUri = MongoTableTestUtils.resolveBaseUri(
+                "mongodb://{{mongo.credentials}}{{mongo.servers}}/shard1?authSource={{mongo.database}}");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "@store(type = 'mongodb', mongodb.uri='" + uri + "', shard.uris='" + shardUri + "')" +
+                "@PrimaryKey(\"price\")" +
+                "define table FooTable (symbol string, price double, volume long); ";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams);
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test
+    public void mongoTableDefinitionTest42() {
+        log.info("mongoTableDefinitionTest42 - " +
+                "Defining a MongoDB event table which replaces indices having the names of the defined indices");
+
+        MongoTableTestUtils.createCollection(uri, "FooTable");
+        MongoTableTestUtils.createIndex(uri, "FooTable", new Document("symbol", 1),
+                new IndexOptions().name("price_1"));
+        MongoTableTestUtils.createIndex(uri, "FooTable", new Document("price", 1),
+                new IndexOptions().name("symbol_1"));
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "@store(type = 'mongodb', mongodb.uri='" + uri + "', index.reconcile='true', " +
+                "index.drop.redundant='true', index.readiness.timeout='10000')" +
+                "@Index(\"price:1\", \"{unique:true}\")" +
+                "@Index(\"symbol:1\")" +
+                "define table FooTable (symbol string, price float, volume long); ";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams);
+        siddhiAppRuntime.start();
+        MongoDBEventTable table = (MongoDBEventTable) siddhiAppRuntime.getTables().iterator().next();
+        Assert.assertTrue(table.isIndexReady(), "Indices are not ready after the readiness timeout");
+        siddhiAppRuntime.shutdown();
+
+        Document priceIndexActual = MongoTableTestUtils.getIndex(uri, "FooTable", "price_1");
+        Assert.assertNotNull(priceIndexActual, "Index Reconciliation Failed");
+        Assert.assertEquals(priceIndexActual.get("key"), new Document("price", 1), "Index Reconciliation Failed");
+        Assert.assertEquals(priceIndexActual.get("unique"), true, "Index Reconciliation Failed");
+        Document symbolIndexActual = MongoTableTestUtils.getIndex(uri, "FooTable", "symbol_1");
+        Assert.assertNotNull(symbolIndexActual, "Index Reconciliation Failed");
+        Assert.assertEquals(symbolIndexActual.get("key"), new Document("symbol", 1), "Index Reconciliation Failed");
+    }
 }
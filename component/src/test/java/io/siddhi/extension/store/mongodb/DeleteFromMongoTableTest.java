@@ -23,11 +23,16 @@ import io.siddhi.core.exception.SiddhiAppCreationException;
 import io.siddhi.core.stream.input.InputHandler;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
+import org.bson.Document;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
 
 public class DeleteFromMongoTableTest {
 
@@ -202,4 +207,283 @@ public class DeleteFromMongoTableTest {
         long totalDocumentsInCollection = MongoTableTestUtils.getDocumentsCount(uri, "FooTable");
         Assert.assertEquals(totalDocumentsInCollection, 3, "Deletion failed");
     }
+
+    @Test
+    public void deleteFromMongoTableTest6() throws InterruptedException {
+        log.info("deleteFromMongoTableTest6 - " +
+                "Create a supporting index for a condition based on the runtime statistics");
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream DeleteStockStream (symbol string, price float, volume long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "', query.stats='true', " +
+                "query.stats.sample.interval='1', auto.index='create', auto.index.min.calls='2', " +
+                "auto.index.scan.ratio='5')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from DeleteStockStream " +
+                "delete FooTable " +
+                "   on (FooTable.symbol == symbol) ";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler deleteStockStream = siddhiAppRuntime.getInputHandler("DeleteStockStream");
+        siddhiAppRuntime.start();
+
+        for (int i = 0; i < 10; i++) {
+            stockStream.send(new Object[]{"WSO2_" + i, 55.6F, 100L});
+        }
+        for (int i = 0; i < 5; i++) {
+            deleteStockStream.send(new Object[]{"IBM_" + i, 75.6F, 100L});
+            Thread.sleep(200);
+        }
+
+        MongoDBEventTable table = (MongoDBEventTable) siddhiAppRuntime.getTables().iterator().next();
+        List<Document> queryStatistics = table.getQueryStatistics();
+        siddhiAppRuntime.shutdown();
+
+        Assert.assertEquals(queryStatistics.size(), 1, "Query statistics collection failed");
+        Assert.assertEquals(queryStatistics.get(0).get("calls"), 5L, "Query statistics collection failed");
+        Document symbolIndex = MongoTableTestUtils.getIndex(uri, "FooTable", "symbol_1");
+        Assert.assertNotNull(symbolIndex, "Automatic index creation failed");
+    }
+
+    @Test
+    public void deleteFromMongoTableTest7() throws InterruptedException {
+        log.info("deleteFromMongoTableTest7 - " +
+                "Delete events using the collation of the case insensitive index serving the condition");
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream DeleteStockStream (symbol string, price float, volume long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "')" +
+                "@Index(\"symbol:1\", \"{collation:{locale:'en', strength:2}}\")" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from DeleteStockStream " +
+                "delete FooTable " +
+                "   on (FooTable.symbol == symbol) ";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler deleteStockStream = siddhiAppRuntime.getInputHandler("DeleteStockStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", 55.6F, 100L});
+        stockStream.send(new Object[]{"IBM", 75.6F, 100L});
+        deleteStockStream.send(new Object[]{"wso2", 57.6F, 100L});
+        siddhiAppRuntime.shutdown();
+
+        long totalDocumentsInCollection = MongoTableTestUtils.getDocumentsCount(uri, "FooTable");
+        Assert.assertEquals(totalDocumentsInCollection, 1, "Deletion failed");
+    }
+
+    @Test
+    public void deleteFromMongoTableTest8() throws InterruptedException {
+        log.info("deleteFromMongoTableTest8 - Delete a batch of events of a MongoDB table with combined filters");
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream DeleteStockStream (symbol string, price float, volume long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "')" +
+                "@PrimaryKey('symbol', 'volume')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from DeleteStockStream#window.lengthBatch(3) " +
+                "delete FooTable " +
+                "   on FooTable.symbol == symbol and FooTable.price > 50 ;" +
+                "" +
+                "@info(name = 'query3') " +
+                "from DeleteStockStream#window.lengthBatch(2) " +
+                "delete FooTable " +
+                "   on FooTable.symbol == symbol and FooTable.volume == volume ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler deleteStockStream = siddhiAppRuntime.getInputHandler("DeleteStockStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", 55.6F, 100L});
+        stockStream.send(new Object[]{"WSO2", 45.6F, 200L});
+        stockStream.send(new Object[]{"IBM", 75.6F, 100L});
+        stockStream.send(new Object[]{"IBM", 35.6F, 200L});
+        stockStream.send(new Object[]{"GOOG", 57.6F, 100L});
+        stockStream.send(new Object[]{"ORACLE", 37.6F, 100L});
+        deleteStockStream.send(new Object[]{"WSO2", 0F, 200L});
+        deleteStockStream.send(new Object[]{"IBM", 0F, 300L});
+        deleteStockStream.send(new Object[]{"WSO2", 0F, 100L});
+
+        siddhiAppRuntime.shutdown();
+
+        long totalDocumentsInCollection = MongoTableTestUtils.getDocumentsCount(uri, "FooTable");
+        Assert.assertEquals(totalDocumentsInCollection, 3, "Deletion failed");
+        Assert.assertEquals(MongoTableTestUtils.findDocuments(uri, "FooTable",
+                new Document("symbol", "IBM"), null).size(), 1, "Deletion failed");
+    }
+
+    @Test
+    public void deleteFromMongoTableTest9() throws InterruptedException {
+        log.info("deleteFromMongoTableTest9 - Purge the events of a MongoDB table older than the retention period");
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, ts long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "', retention.field='ts', " +
+                "retention.period='60000', retention.interval='100', retention.chunk.size='20')" +
+                "define table FooTable (symbol string, price float, ts long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        siddhiAppRuntime.start();
+
+        long currentTime = System.currentTimeMillis();
+        for (int i = 0; i < 50; i++) {
+            stockStream.send(new Object[]{"WSO2_" + i, 55.6F, currentTime - 120000L - i});
+        }
+        for (int i = 0; i < 5; i++) {
+            stockStream.send(new Object[]{"IBM_" + i, 75.6F, currentTime});
+        }
+        Thread.sleep(2000);
+
+        MongoDBEventTable table = (MongoDBEventTable) siddhiAppRuntime.getTables().iterator().next();
+        Document retentionStatistics = table.getRetentionStatistics();
+        siddhiAppRuntime.shutdown();
+
+        long totalDocumentsInCollection = MongoTableTestUtils.getDocumentsCount(uri, "FooTable");
+        Assert.assertEquals(totalDocumentsInCollection, 5, "Retention purge failed");
+        Assert.assertEquals(retentionStatistics.get("purgedDocuments"), 50L, "Retention purge failed");
+        Assert.assertNotNull(MongoTableTestUtils.getIndex(uri, "FooTable", "ts_1"), "Retention index creation failed");
+    }
+
+    @Test
+    public void deleteFromMongoTableTest10() throws InterruptedException {
+        log.info("deleteFromMongoTableTest10 - Delete from and drop the time partitions of a MongoDB table");
+
+        long currentTime = System.currentTimeMillis();
+        String currentPartition = "FooTable_" + DateTimeFormatter.ofPattern("yyyy_MM_dd")
+                .format(Instant.ofEpochMilli(currentTime).atZone(ZoneOffset.UTC));
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+        MongoTableTestUtils.dropCollection(uri, "FooTable_2020_01_01");
+        MongoTableTestUtils.dropCollection(uri, currentPartition);
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, ts long); " +
+                "define stream DeleteStockStream (symbol string, ts long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "', partition.field='ts', " +
+                "retention.field='ts', retention.period='172800000', retention.interval='100')" +
+                "@Index('symbol:1')" +
+                "define table FooTable (symbol string, price float, ts long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from DeleteStockStream " +
+                "delete FooTable " +
+                "   on FooTable.symbol == symbol and FooTable.ts >= ts ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler deleteStockStream = siddhiAppRuntime.getInputHandler("DeleteStockStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", 55.6F, 1577836800000L});
+        stockStream.send(new Object[]{"WSO2", 57.6F, currentTime});
+        stockStream.send(new Object[]{"IBM", 75.6F, currentTime});
+        deleteStockStream.send(new Object[]{"WSO2", currentTime});
+        Thread.sleep(1000);
+
+        MongoDBEventTable table = (MongoDBEventTable) siddhiAppRuntime.getTables().iterator().next();
+        Document retentionStatistics = table.getRetentionStatistics();
+        siddhiAppRuntime.shutdown();
+
+        Assert.assertFalse(MongoTableTestUtils.doesCollectionExists(uri, "FooTable_2020_01_01"),
+                "Dropping the expired partition failed");
+        Assert.assertEquals(retentionStatistics.get("droppedPartitions"), 1L, "Dropping the expired partition failed");
+        Assert.assertFalse(MongoTableTestUtils.doesCollectionExists(uri, "FooTable"), "Partitioning failed");
+        Assert.assertEquals(MongoTableTestUtils.getDocumentsCount(uri, currentPartition), 1, "Deletion failed");
+        Assert.assertNotNull(MongoTableTestUtils.getIndex(uri, currentPartition, "symbol_1"),
+                "Partition index creation failed");
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void deleteFromMongoTableTest11() {
+        log.info("deleteFromMongoTableTest11");
+        //Delete from a bucket collection with an OR operation on the key field
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, timestamp long); " +
+                "define stream DeleteStockStream (symbol string, price float); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "', collection.type='bucket', " +
+                "bucket.key='symbol', time.field='timestamp', bucket.interval='60000')" +
+                "define table FooTable (symbol string, price float, timestamp long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from DeleteStockStream " +
+                "delete FooTable " +
+                "   on FooTable.symbol == symbol or FooTable.price > price ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.start();
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void deleteFromMongoTableTest12() {
+        log.info("deleteFromMongoTableTest12");
+        //Delete from a partitioned collection with a condition which does not bind the partition field
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (tenant string, symbol string, price float); " +
+                "define stream DeleteStockStream (symbol string); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "', collection.partition.by='tenant')" +
+                "define table FooTable (tenant string, symbol string, price float);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from DeleteStockStream " +
+                "delete FooTable " +
+                "   on FooTable.symbol == symbol ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.start();
+        siddhiAppRuntime.shutdown();
+    }
 }
@@ -396,4 +396,77 @@ public class InsertIntoMongoTableTest {
         Assert.assertEquals(totalDocumentsInCollection, 1, "Insertion failed");
 
     }
+
+    @Test
+    public void insertIntoMongoTableTest13() throws InterruptedException {
+        log.info("insertIntoMongoTableTest13");
+        //Capped collection inserts
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "@source(type='inMemory', topic='stock') " +
+                "define stream FooStream (symbol string, price float, volume long); " +
+                "@Store(type=\"mongodb\", mongodb.uri='" + uri + "', capped.size='4096', capped.max.docs='2')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from FooStream " +
+                "select symbol, price, volume " +
+                "insert into FooTable;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+
+        fooStream.send(new Object[]{"WSO2", 55.6f, 100L});
+        fooStream.send(new Object[]{"IBM", 75.6f, 100L});
+        fooStream.send(new Object[]{"MSFT", 57.6f, 100L});
+
+        siddhiAppRuntime.shutdown();
+
+        long totalDocumentsInCollection = MongoTableTestUtils.getDocumentsCount(uri, "FooTable");
+        Assert.assertEquals(totalDocumentsInCollection, 2, "Oldest document is not evicted");
+        Assert.assertNotNull(MongoTableTestUtils.getDocument(uri, "FooTable", "{symbol:'MSFT'}"),
+                "Insertion failed");
+    }
+
+    @Test
+    public void insertIntoMongoTableTest14() throws InterruptedException {
+        log.info("insertIntoMongoTableTest14");
+        //Time partitioned inserts of events without a partition value
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable_2020_01_01");
+
+        Logger tableLogger = Logger.getLogger(MongoDBEventTable.class);
+        UnitTestAppender appender = new UnitTestAppender();
+        tableLogger.addAppender(appender);
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "@source(type='inMemory', topic='stock') " +
+                "define stream FooStream (symbol string, price float, ts long); " +
+                "@Store(type=\"mongodb\", mongodb.uri='" + uri + "', partition.field='ts')" +
+                "define table FooTable (symbol string, price float, ts long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from FooStream " +
+                "select symbol, price, ts " +
+                "insert into FooTable;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+
+        fooStream.send(new Object[]{"WSO2", 55.6f, 1577836800000L});
+        fooStream.send(new Object[]{"IBM", 75.6f, null});
+
+        siddhiAppRuntime.shutdown();
+        tableLogger.removeAppender(appender);
+
+        Assert.assertNotNull(appender.getMessages(), "The event without a partition value is not reported");
+        Assert.assertTrue(appender.getMessages().contains("no value for the partition field 'ts'"),
+                "The event without a partition value is not reported");
+        Assert.assertEquals(MongoTableTestUtils.getDocumentsCount(uri, "FooTable_2020_01_01"), 1,
+                "Insertion failed");
+    }
 }
@@ -26,13 +26,16 @@ import io.siddhi.core.stream.input.InputHandler;
 import io.siddhi.core.util.SiddhiTestHelper;
 import io.siddhi.query.compiler.exception.SiddhiParserException;
 import org.apache.log4j.Logger;
+import org.bson.Document;
 import org.testng.Assert;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.Test;
 
+import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 public class JoinMongoTableTest {
@@ -317,4 +320,192 @@ public class JoinMongoTableTest {
 
         Assert.assertEquals(eventCount.intValue(), 1, "Read events failed");
     }
+
+    @Test
+    public void testMongoTableJoinQuery7() throws InterruptedException {
+        log.info("testMongoTableJoinQuery7");
+        //Date field reads
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, timestamp long); " +
+                "define stream FooStream (symbol string, since long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "', date.fields='timestamp')" +
+                "@Index('timestamp:1', '{\"expireAfterSeconds\":86400}')" +
+                "define table FooTable (symbol string, price float, timestamp long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream#window.length(1) join FooTable " +
+                "on FooTable.timestamp >= FooStream.since " +
+                "select FooStream.symbol as checkSymbol, FooTable.symbol as symbol, " +
+                "FooTable.timestamp as timestamp  " +
+                "insert into OutputStream ;";
+
+        long now = System.currentTimeMillis();
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        eventCount.incrementAndGet();
+                        switch (eventCount.intValue()) {
+                            case 1:
+                                Assert.assertEquals(new Object[]{"WSO2_check", "WSO2", now}, event.getData());
+                                break;
+                            default:
+                                break;
+                        }
+                    }
+                }
+            }
+
+        });
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", 5.6f, now});
+        stockStream.send(new Object[]{"IBM", 7.6f, now - 60000L});
+        fooStream.send(new Object[]{"WSO2_check", now - 1000L});
+        SiddhiTestHelper.waitForEvents(waitTime, 1, eventCount, timeout);
+
+        siddhiAppRuntime.shutdown();
+
+        Assert.assertEquals(eventCount.intValue(), 1, "Read events failed");
+        List<Document> documents = MongoTableTestUtils.findDocuments(uri, "FooTable",
+                new Document("symbol", "WSO2"), null);
+        Assert.assertEquals(documents.get(0).get("timestamp"), new Date(now),
+                "Date field is not stored as a BSON Date");
+    }
+
+    @Test
+    public void testMongoTableJoinQuery8() throws InterruptedException {
+        log.info("testMongoTableJoinQuery8");
+        //Bucket reads
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, timestamp long); " +
+                "define stream FooStream (symbol string, minPrice float); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "', collection.type='bucket', " +
+                "bucket.key='symbol', time.field='timestamp', bucket.interval='60000', bucket.max.events='2')" +
+                "define table FooTable (symbol string, price float, timestamp long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream#window.length(1) join FooTable " +
+                "on FooTable.symbol == FooStream.symbol and FooTable.price > FooStream.minPrice " +
+                "select FooTable.symbol as symbol, FooTable.price as price, FooTable.timestamp as timestamp " +
+                "insert into OutputStream ;";
+
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        eventCount.incrementAndGet();
+                        switch (eventCount.intValue()) {
+                            case 1:
+                                Assert.assertEquals(new Object[]{"WSO2", 57.5f, 120010L}, event.getData());
+                                break;
+                            case 2:
+                                Assert.assertEquals(new Object[]{"WSO2", 58.5f, 120020L}, event.getData());
+                                break;
+                            case 3:
+                                Assert.assertEquals(new Object[]{"WSO2", 59.5f, 120030L}, event.getData());
+                                break;
+                            default:
+                                break;
+                        }
+                    }
+                }
+            }
+
+        });
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", 55.5f, 120000L});
+        stockStream.send(new Object[]{"WSO2", 57.5f, 120010L});
+        stockStream.send(new Object[]{"WSO2", 58.5f, 120020L});
+        stockStream.send(new Object[]{"WSO2", 59.5f, 120030L});
+        stockStream.send(new Object[]{"IBM", 75.5f, 120040L});
+        fooStream.send(new Object[]{"WSO2", 56.0f});
+        SiddhiTestHelper.waitForEvents(waitTime, 3, eventCount, timeout);
+
+        siddhiAppRuntime.shutdown();
+
+        Assert.assertEquals(eventCount.intValue(), 3, "Read events failed");
+        Assert.assertEquals(MongoTableTestUtils.getDocumentsCount(uri, "FooTable"), 3,
+                "Events are not grouped into buckets");
+    }
+
+    @Test
+    public void testMongoTableJoinQuery9() throws InterruptedException {
+        log.info("testMongoTableJoinQuery9");
+        //Date field in a MATH operation
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, timestamp long); " +
+                "define stream FooStream (symbol string, since long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "', date.fields='timestamp')" +
+                "define table FooTable (symbol string, price float, timestamp long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream#window.length(1) join FooTable " +
+                "on FooTable.timestamp - FooStream.since > 30000 " +
+                "select FooStream.symbol as checkSymbol, FooTable.symbol as symbol " +
+                "insert into OutputStream ;";
+
+        long now = System.currentTimeMillis();
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.addCallback("query2", new QueryCallback() {
+            @Override
+            public void receive(long timeStamp, Event[] inEvents, Event[] removeEvents) {
+                if (inEvents != null) {
+                    for (Event event : inEvents) {
+                        eventCount.incrementAndGet();
+                        Assert.assertEquals(new Object[]{"WSO2_check", "WSO2"}, event.getData());
+                    }
+                }
+            }
+
+        });
+
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", 5.6f, now});
+        stockStream.send(new Object[]{"IBM", 7.6f, now - 60000L});
+        fooStream.send(new Object[]{"WSO2_check", now - 40000L});
+        SiddhiTestHelper.waitForEvents(waitTime, 1, eventCount, timeout);
+
+        siddhiAppRuntime.shutdown();
+
+        Assert.assertEquals(eventCount.intValue(), 1, "Read events failed");
+    }
 }
@@ -22,6 +22,8 @@ import com.mongodb.MongoClient;
 import com.mongodb.MongoClientURI;
 import com.mongodb.MongoException;
 import com.mongodb.client.ListIndexesIterable;
+import com.mongodb.client.model.Collation;
+import com.mongodb.client.model.IndexOptions;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 import org.bson.Document;
@@ -86,8 +88,12 @@ public class MongoTableTestUtils {
     }
 
     public static void dropCollection(String uri, String collectionName) {
+        dropCollection(uri, databaseName, collectionName);
+    }
+
+    public static void dropCollection(String uri, String database, String collectionName) {
         try (MongoClient mongoClient = new MongoClient(new MongoClientURI(uri))) {
-            mongoClient.getDatabase(databaseName).getCollection(collectionName).drop();
+            mongoClient.getDatabase(database).getCollection(collectionName).drop();
         } catch (MongoException e) {
             log.debug("Clearing DB collection failed due to " + e.getMessage(), e);
             throw e;
@@ -95,14 +101,31 @@ public class MongoTableTestUtils {
     }
 
     public static long getDocumentsCount(String uri, String collectionName) {
+        return getDocumentsCount(uri, databaseName, collectionName);
+    }
+
+    public static long getDocumentsCount(String uri, String database, String collectionName) {
         try (MongoClient mongoClient = new MongoClient(new MongoClientURI(uri))) {
-            return mongoClient.getDatabase(databaseName).getCollection(collectionName).count();
+            return mongoClient.getDatabase(database).getCollection(collectionName).count();
         } catch (MongoException e) {
             log.debug("Getting rows in DB table failed due to " + e.getMessage(), e);
             throw e;
         }
     }
 
+    public static List<Document> findDocuments(String uri, String collectionName, Document filter,
+                                               Collation collation) {
+        try (MongoClient mongoClient = new MongoClient(new MongoClientURI(uri))) {
+            List<Document> documents = new ArrayList<>();
+            mongoClient.getDatabase(databaseName).getCollection(collectionName).find(filter).collation(collation)
+                    .into(documents);
+            return documents;
+        } catch (MongoException e) {
+            log.debug("Finding documents in DB table failed due to " + e.getMessage(), e);
+            throw e;
+        }
+    }
+
     public static boolean doesCollectionExists(String uri, String customCollectionName) {
         try (MongoClient mongoClient = new MongoClient(new MongoClientURI(uri))) {
             for (String collectionName : mongoClient.getDatabase(databaseName).listCollectionNames()) {
@@ -170,6 +193,17 @@ public class MongoTableTestUtils {
             throw e;
         }
     }
-}
 
+    public static void createIndex(String uri, String collectionName, Document indexKeys) {
+        createIndex(uri, collectionName, indexKeys, new IndexOptions());
+    }
 
+    public static void createIndex(String uri, String collectionName, Document indexKeys, IndexOptions options) {
+        try (MongoClient mongoClient = new MongoClient(new MongoClientURI(uri))) {
+            mongoClient.getDatabase(databaseName).getCollection(collectionName).createIndex(indexKeys, options);
+        } catch (MongoException e) {
+            log.debug("Creating index in DB table failed due to " + e.getMessage(), e);
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2017, WSO2 Inc. (http://www.wso2.org) All Rights Reserved.
+ *
+ * WSO2 Inc. licenses this file to you under the Apache License,
+ * Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied. See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package io.siddhi.extension.store.mongodb;
+
+import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.config.SiddhiQueryContext;
+import io.siddhi.core.executor.ExpressionExecutor;
+import io.siddhi.core.executor.function.FunctionExecutor;
+import io.siddhi.core.util.config.ConfigReader;
+import io.siddhi.core.util.snapshot.state.State;
+import io.siddhi.core.util.snapshot.state.StateFactory;
+import io.siddhi.query.api.definition.Attribute;
+
+/**
+ * String and regex functions with the semantics of the Siddhi string and regex execution extensions, registered
+ * for the tests which push these functions down to the MongoDB.
+ */
+public class StringFunctionTestExtensions {
+
+    private StringFunctionTestExtensions() {
+    }
+
+    public static void register(SiddhiManager siddhiManager) {
+        siddhiManager.setExtension("str:contains", ContainsFunction.class);
+        siddhiManager.setExtension("str:startsWith", StartsWithFunction.class);
+        siddhiManager.setExtension("str:endsWith", EndsWithFunction.class);
+        siddhiManager.setExtension("str:equalsIgnoreCase", EqualsIgnoreCaseFunction.class);
+        siddhiManager.setExtension("regex:matches", MatchesFunction.class);
+    }
+
+    /**
+     * Base class of the boolean functions with two string parameters.
+     */
+    public abstract static class StringPredicateFunction extends FunctionExecutor<State> {
+
+        @Override
+        protected StateFactory<State> init(ExpressionExecutor[] attributeExpressionExecutors,
+                                           ConfigReader configReader, SiddhiQueryContext siddhiQueryContext) {
+            return null;
+        }
+
+        @Override
+        protected Object execute(Object[] data, State state) {
+            if (data[0] == null || data[1] == null) {
+                return false;
+            }
+            return this.test(data[0].toString(), data[1].toString());
+        }
+
+        @Override
+        protected Object execute(Object data, State state) {
+            return false;
+        }
+
+        @Override
+        public Attribute.Type getReturnType() {
+            return Attribute.Type.BOOL;
+        }
+
+        protected abstract boolean test(String first, String second);
+    }
+
+    /**
+     * str:contains(input, search).
+     */
+    public static class ContainsFunction extends StringPredicateFunction {
+        @Override
+        protected boolean test(String first, String second) {
+            return first.contains(second);
+        }
+    }
+
+    /**
+     * str:startsWith(input, prefix).
+     */
+    public static class StartsWithFunction extends StringPredicateFunction {
+        @Override
+        protected boolean test(String first, String second) {
+            return first.startsWith(second);
+        }
+    }
+
+    /**
+     * str:endsWith(input, suffix).
+     */
+    public static class EndsWithFunction extends StringPredicateFunction {
+        @Override
+        protected boolean test(String first, String second) {
+            return first.endsWith(second);
+        }
+    }
+
+    /**
+     * str:equalsIgnoreCase(first, second).
+     */
+    public static class EqualsIgnoreCaseFunction extends StringPredicateFunction {
+        @Override
+        protected boolean test(String first, String second) {
+            return first.equalsIgnoreCase(second);
+        }
+    }
+
+    /**
+     * regex:matches(regex, input).
+     */
+    public static class MatchesFunction extends StringPredicateFunction {
+        @Override
+        protected boolean test(String first, String second) {
+            return second.matches(first);
+        }
+    }
+}
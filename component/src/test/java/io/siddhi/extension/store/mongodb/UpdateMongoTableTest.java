@@ -19,6 +19,7 @@ package io.siddhi.extension.store.mongodb;
 
 import io.siddhi.core.SiddhiAppRuntime;
 import io.siddhi.core.SiddhiManager;
+import io.siddhi.core.exception.SiddhiAppCreationException;
 import io.siddhi.core.stream.input.InputHandler;
 import io.siddhi.query.api.exception.SiddhiAppValidationException;
 import org.apache.log4j.Logger;
@@ -311,4 +312,123 @@ public class UpdateMongoTableTest {
         long totalDocumentsInCollection = MongoTableTestUtils.getDocumentsCount(uri, "FooTable");
         Assert.assertEquals(totalDocumentsInCollection, 3, "Update failed");
     }
+
+    @Test
+    public void updateFromMongoTableTest9() throws InterruptedException {
+        log.info("updateFromMongoTableTest9 - Updates events of a MongoDB table with update operators computed " +
+                "from the stored attributes");
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream FooStream (symbol string, price float, volume long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "') " +
+                "@PrimaryKey('symbol')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream#window.lengthBatch(3) " +
+                "update FooTable " +
+                "set FooTable.price = maximum(FooTable.price, price), FooTable.volume = FooTable.volume + volume " +
+                "on FooTable.symbol == symbol;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", 55.5f, 100L});
+        stockStream.send(new Object[]{"IBM", 74.5f, 100L});
+        fooStream.send(new Object[]{"IBM", 80.5f, 50L});
+        fooStream.send(new Object[]{"IBM", 60.5f, -20L});
+        fooStream.send(new Object[]{"WSO2", 50.5f, 10L});
+
+        siddhiAppRuntime.shutdown();
+
+        long totalDocumentsInCollection = MongoTableTestUtils.getDocumentsCount(uri, "FooTable");
+        Assert.assertEquals(totalDocumentsInCollection, 2, "Update failed");
+
+        Document expectedIbmDocument = new Document()
+                .append("symbol", "IBM")
+                .append("price", 80.5)
+                .append("volume", 130L);
+        Document ibmDocument = MongoTableTestUtils.getDocument(uri, "FooTable", "{symbol:'IBM'}");
+        Assert.assertEquals(ibmDocument, expectedIbmDocument, "Update Failed");
+        Document expectedWso2Document = new Document()
+                .append("symbol", "WSO2")
+                .append("price", 55.5)
+                .append("volume", 110L);
+        Document wso2Document = MongoTableTestUtils.getDocument(uri, "FooTable", "{symbol:'WSO2'}");
+        Assert.assertEquals(wso2Document, expectedWso2Document, "Update Failed");
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void updateFromMongoTableTest10() {
+        log.info("updateFromMongoTableTest10 - Updates events of a MongoDB table with a value computed from " +
+                "another stored attribute");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream FooStream (symbol string, price float, volume long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "') " +
+                "@PrimaryKey('symbol')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from FooStream " +
+                "update FooTable " +
+                "set FooTable.volume = FooTable.price * volume " +
+                "on FooTable.symbol == symbol;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.start();
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void updateFromMongoTableTest11() {
+        log.info("updateFromMongoTableTest11 - Updates the time partition field of a time partitioned MongoDB table");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream FooStream (symbol string, price float, ts long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "', partition.field='ts') " +
+                "define table FooTable (symbol string, price float, ts long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from FooStream " +
+                "update FooTable " +
+                "set FooTable.ts = ts " +
+                "on FooTable.symbol == symbol;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.start();
+        siddhiAppRuntime.shutdown();
+    }
+
+    @Test(expectedExceptions = SiddhiAppCreationException.class)
+    public void updateFromMongoTableTest12() {
+        log.info("updateFromMongoTableTest12 - Updates the shard key field of a sharded MongoDB table");
+
+        String shardUri = MongoTableTestUtils.resolveBaseUri(
+                "mongodb://{{mongo.credentials}}{{mongo.servers}}/shard1?authSource={{mongo.database}}");
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream FooStream (symbol string, price float, volume long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "', shard.uris='" + shardUri + "') " +
+                "@PrimaryKey('symbol')" +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from FooStream " +
+                "update FooTable " +
+                "set FooTable.symbol = symbol " +
+                "on FooTable.price == price;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        siddhiAppRuntime.start();
+        siddhiAppRuntime.shutdown();
+    }
 }
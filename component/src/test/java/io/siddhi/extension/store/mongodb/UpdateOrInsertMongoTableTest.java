@@ -29,6 +29,11 @@ import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
 import org.testng.annotations.Test;
 
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
 public class UpdateOrInsertMongoTableTest {
 
     private static final Logger log = Logger.getLogger(UpdateOrInsertMongoTableTest.class);
@@ -279,4 +284,290 @@ public class UpdateOrInsertMongoTableTest {
         siddhiAppRuntime.start();
         siddhiAppRuntime.shutdown();
     }
+
+    @Test
+    public void updateOrInsertMongoTableTest8() throws InterruptedException {
+        log.info("updateOrInsertMongoTableTest8 - Configure siddhi to perform insert/update on MongoDB Document " +
+                "with a SET clause, inserting the attributes which are not set");
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, volume long); " +
+                "define stream FooStream (symbol string, price float, volume long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "') " +
+                "define table FooTable (symbol string, price float, volume long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream " +
+                "update or insert into FooTable " +
+                "set FooTable.volume = FooTable.volume + volume " +
+                "   on FooTable.symbol == symbol ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", 55.5F, 100L});
+        fooStream.send(new Object[]{"WSO2", 57.5F, 50L});
+        fooStream.send(new Object[]{"IBM", 75.5F, 200L});
+
+        siddhiAppRuntime.shutdown();
+
+        long totalDocumentsInCollection = MongoTableTestUtils.getDocumentsCount(uri, "FooTable");
+        Assert.assertEquals(totalDocumentsInCollection, 2, "Update failed");
+
+        Document expectedUpdatedDocument = new Document()
+                .append("symbol", "WSO2")
+                .append("price", 55.5)
+                .append("volume", 150L);
+        Document updatedDocument = MongoTableTestUtils.getDocument(uri, "FooTable", "{symbol:'WSO2'}");
+        Assert.assertEquals(updatedDocument, expectedUpdatedDocument, "Update Failed");
+        Document expectedInsertedDocument = new Document()
+                .append("symbol", "IBM")
+                .append("price", 75.5)
+                .append("volume", 200L);
+        Document insertedDocument = MongoTableTestUtils.getDocument(uri, "FooTable", "{symbol:'IBM'}");
+        Assert.assertEquals(insertedDocument, expectedInsertedDocument, "Insert Failed");
+    }
+
+    @Test
+    public void updateOrInsertMongoTableTest9() throws InterruptedException {
+        log.info("updateOrInsertMongoTableTest9 - Configure siddhi to perform insert/update on MongoDB Document " +
+                "with a version field, dropping the stale events");
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, ts long); " +
+                "define stream FooStream (symbol string, price float, ts long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "', version.field='ts') " +
+                "@PrimaryKey('symbol')" +
+                "define table FooTable (symbol string, price float, ts long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream " +
+                "update or insert into FooTable " +
+                "   on FooTable.symbol == symbol ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", 55.5F, 10L});
+        fooStream.send(new Object[]{"WSO2", 57.5F, 20L});
+        fooStream.send(new Object[]{"WSO2", 50.5F, 15L});
+        fooStream.send(new Object[]{"IBM", 75.5F, 5L});
+
+        siddhiAppRuntime.shutdown();
+
+        long totalDocumentsInCollection = MongoTableTestUtils.getDocumentsCount(uri, "FooTable");
+        Assert.assertEquals(totalDocumentsInCollection, 2, "Update failed");
+
+        Document expectedUpdatedDocument = new Document()
+                .append("symbol", "WSO2")
+                .append("price", 57.5)
+                .append("ts", 20L);
+        Document updatedDocument = MongoTableTestUtils.getDocument(uri, "FooTable", "{symbol:'WSO2'}");
+        Assert.assertEquals(updatedDocument, expectedUpdatedDocument, "Update Failed");
+        Document expectedInsertedDocument = new Document()
+                .append("symbol", "IBM")
+                .append("price", 75.5)
+                .append("ts", 5L);
+        Document insertedDocument = MongoTableTestUtils.getDocument(uri, "FooTable", "{symbol:'IBM'}");
+        Assert.assertEquals(insertedDocument, expectedInsertedDocument, "Insert Failed");
+    }
+
+    @Test
+    public void updateOrInsertMongoTableTest10() throws InterruptedException {
+        log.info("updateOrInsertMongoTableTest10 - Configure siddhi to perform insert/update on MongoDB Document " +
+                "with a composite primary key stored as '_id'");
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, region string, price float); " +
+                "define stream FooStream (symbol string, region string, price float); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "', primary.key.as.id='true') " +
+                "@PrimaryKey('symbol', 'region')" +
+                "define table FooTable (symbol string, region string, price float);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream " +
+                "update or insert into FooTable " +
+                "   on FooTable.symbol == symbol and FooTable.region == region ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", "EU", 55.5F});
+        fooStream.send(new Object[]{"WSO2", "EU", 57.5F});
+        fooStream.send(new Object[]{"WSO2", "US", 75.5F});
+
+        siddhiAppRuntime.shutdown();
+
+        long totalDocumentsInCollection = MongoTableTestUtils.getDocumentsCount(uri, "FooTable");
+        Assert.assertEquals(totalDocumentsInCollection, 2, "Update failed");
+
+        List<Document> updatedDocuments = MongoTableTestUtils.findDocuments(uri, "FooTable",
+                new Document("_id", new Document("symbol", "WSO2").append("region", "EU")), null);
+        Assert.assertEquals(updatedDocuments.size(), 1, "Update Failed");
+        Assert.assertEquals(updatedDocuments.get(0).get("price"), 57.5, "Update Failed");
+        Assert.assertNull(updatedDocuments.get(0).get("symbol"), "Primary key is not stored as '_id'");
+        List<Document> insertedDocuments = MongoTableTestUtils.findDocuments(uri, "FooTable",
+                new Document("_id", new Document("symbol", "WSO2").append("region", "US")), null);
+        Assert.assertEquals(insertedDocuments.size(), 1, "Insert Failed");
+        Assert.assertNull(MongoTableTestUtils.getIndex(uri, "FooTable", "symbol_1_region_1"),
+                "Unique index of the primary key is created");
+    }
+
+    @Test
+    public void updateOrInsertMongoTableTest11() throws InterruptedException {
+        log.info("updateOrInsertMongoTableTest11 - Configure siddhi to perform insert/update on the per-tenant " +
+                "collections of a MongoDB table");
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+        MongoTableTestUtils.dropCollection(uri, "FooTable_t1");
+        MongoTableTestUtils.dropCollection(uri, "FooTable_t2");
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (tenant string, symbol string, price float); " +
+                "define stream FooStream (tenant string, symbol string, price float); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "', collection.partition.by='tenant') " +
+                "@PrimaryKey('symbol')" +
+                "define table FooTable (tenant string, symbol string, price float);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream " +
+                "update or insert into FooTable " +
+                "   on FooTable.tenant == tenant and FooTable.symbol == symbol ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"t1", "WSO2", 55.5F});
+        stockStream.send(new Object[]{"t2", "WSO2", 65.5F});
+        fooStream.send(new Object[]{"t1", "WSO2", 57.5F});
+        fooStream.send(new Object[]{"t2", "IBM", 75.5F});
+
+        siddhiAppRuntime.shutdown();
+
+        Assert.assertFalse(MongoTableTestUtils.doesCollectionExists(uri, "FooTable"), "Partitioning failed");
+        Assert.assertEquals(MongoTableTestUtils.getDocumentsCount(uri, "FooTable_t1"), 1, "Update failed");
+        Assert.assertEquals(MongoTableTestUtils.getDocumentsCount(uri, "FooTable_t2"), 2, "Insert failed");
+        List<Document> updatedDocuments = MongoTableTestUtils.findDocuments(uri, "FooTable_t1",
+                new Document("symbol", "WSO2"), null);
+        Assert.assertEquals(updatedDocuments.get(0).get("price"), 57.5, "Update Failed");
+        Assert.assertNotNull(MongoTableTestUtils.getIndex(uri, "FooTable_t2", "symbol_1"),
+                "Partition index creation failed");
+    }
+
+    @Test
+    public void updateOrInsertMongoTableTest12() throws InterruptedException {
+        log.info("updateOrInsertMongoTableTest12 - Configure siddhi to perform insert/update on MongoDB Document " +
+                "with a version field, reporting the collisions on other unique indices");
+
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+
+        Logger tableLogger = Logger.getLogger(MongoDBEventTable.class);
+        UnitTestAppender appender = new UnitTestAppender();
+        tableLogger.addAppender(appender);
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, ts long); " +
+                "define stream FooStream (symbol string, price float, ts long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "', version.field='ts') " +
+                "@PrimaryKey('symbol')" +
+                "@Index(\"price:1\", \"{unique:true}\")" +
+                "define table FooTable (symbol string, price float, ts long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream " +
+                "update or insert into FooTable " +
+                "   on FooTable.symbol == symbol ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", 55.5F, 10L});
+        fooStream.send(new Object[]{"IBM", 55.5F, 5L});
+
+        siddhiAppRuntime.shutdown();
+        tableLogger.removeAppender(appender);
+
+        Assert.assertEquals(MongoTableTestUtils.getDocumentsCount(uri, "FooTable"), 1, "Update failed");
+        Assert.assertNotNull(appender.getMessages(), "Collision on the unique index is not reported");
+        Assert.assertTrue(appender.getMessages().contains("failed to update"),
+                "Collision on the unique index is not reported");
+    }
+
+    @Test
+    public void updateOrInsertMongoTableTest13() throws InterruptedException {
+        log.info("updateOrInsertMongoTableTest13 - Update or insert events without a SET clause into the time " +
+                "partitions of a MongoDB table");
+
+        long currentTime = System.currentTimeMillis();
+        String currentPartition = "FooTable_" + DateTimeFormatter.ofPattern("yyyy_MM_dd")
+                .format(Instant.ofEpochMilli(currentTime).atZone(ZoneOffset.UTC));
+        MongoTableTestUtils.dropCollection(uri, "FooTable");
+        MongoTableTestUtils.dropCollection(uri, currentPartition);
+
+        SiddhiManager siddhiManager = new SiddhiManager();
+        String streams = "" +
+                "define stream StockStream (symbol string, price float, ts long); " +
+                "define stream FooStream (symbol string, price float, ts long); " +
+                "@store(type = 'mongodb' , mongodb.uri='" + uri + "', partition.field='ts') " +
+                "define table FooTable (symbol string, price float, ts long);";
+        String query = "" +
+                "@info(name = 'query1') " +
+                "from StockStream " +
+                "insert into FooTable ;" +
+                "" +
+                "@info(name = 'query2') " +
+                "from FooStream " +
+                "update or insert into FooTable " +
+                "   on FooTable.symbol == symbol ;";
+        SiddhiAppRuntime siddhiAppRuntime = siddhiManager.createSiddhiAppRuntime(streams + query);
+        InputHandler stockStream = siddhiAppRuntime.getInputHandler("StockStream");
+        InputHandler fooStream = siddhiAppRuntime.getInputHandler("FooStream");
+        siddhiAppRuntime.start();
+
+        stockStream.send(new Object[]{"WSO2", 55.5F, currentTime});
+        fooStream.send(new Object[]{"WSO2", 57.5F, currentTime});
+        fooStream.send(new Object[]{"IBM", 75.5F, currentTime});
+
+        siddhiAppRuntime.shutdown();
+
+        Assert.assertEquals(MongoTableTestUtils.getDocumentsCount(uri, currentPartition), 2, "Update failed");
+        Document wso2Document = MongoTableTestUtils.getDocument(uri, currentPartition, "{symbol:'WSO2'}");
+        Assert.assertEquals(wso2Document.get("price"), 57.5, "Update failed");
+    }
 }